@@ -8,8 +8,18 @@ result_pattern = re.compile(r'Time for first process to decide: ([0-9.]+)ms')
 
 results = {}
 
+# table of the in-JVM sweep (demo.Sweep), one row per configuration with the mean time of its runs
+sweep_path = os.path.join(summary_path, 'sweep.txt')
+if os.path.exists(sweep_path):
+    with open(sweep_path, 'r') as file:
+        header = file.readline().rstrip('\n').split('\t')
+        for line in file:
+            row = dict(zip(header, line.rstrip('\n').split('\t')))
+            if row['mean (ms)'] != '-':
+                results[(row['N'], row['CRASH_NUMBER'], row['CRASH_PROBABILITY'], row['LEADER_ELECTION_TIMEOUT'])] = float(row['mean (ms)'])
+
 for filename in os.listdir(summary_path):
-    if filename.endswith('.txt'):
+    if filename.endswith('.txt') and not os.path.exists(sweep_path):
         match = param_pattern.match(filename)
         if match:
             N, f, a, tle = match.groups()
@@ -0,0 +1,44 @@
+import re
+# report the recovery latency of restarted processes and the throughput dip seen by the leader
+log_file_path = "logs/log.txt"
+param_file_path = "param.txt"
+recovery_output_path = "summary/recovery.txt"
+
+param_content = ""
+with open(param_file_path, 'r') as param_file:
+    param_content = param_file.read()
+pattern = re.compile(r'(\w+)\s*=\s*(\d+\.?\d*)')
+parameters = {}
+for match in pattern.finditer(param_content):
+    param_value = match.group(2)
+    parameters[match.group(1)] = float(param_value) if '.' in param_value else int(param_value)
+
+pattern_recovered = re.compile(r'\[INFO\].*Process \[(\d+)\] recovered: downtime \[(\d+)ms\] reload \[(\d+)us\] catch-up \[(\d+)ms\] slots \[(\d+)\]')
+pattern_timeline = re.compile(r'\[INFO\].*throughput timeline \(commands per \[(\d+)ms\]\): \[([\d ]*)\]')
+
+recoveries = []
+timeline = []
+bucket = 0
+with open(log_file_path, 'r') as log_file:
+    for line in log_file:
+        match = pattern_recovered.search(line)
+        if match:
+            recoveries.append((int(match.group(1)), int(match.group(2)), int(match.group(3)), int(match.group(4)), int(match.group(5))))
+        match = pattern_timeline.search(line)
+        if match:
+            bucket = int(match.group(1))
+            timeline = [int(x) for x in match.group(2).split()]
+
+with open(recovery_output_path, 'a') as output_file:
+    output_file.write(f"N\t[{parameters['N']}]\tDOWNTIME\t[{parameters.get('RECOVERY_DOWNTIME', 0)}ms]\tRECOVERIES\t[{len(recoveries)}]\n")
+    for process, downtime, reload, catchup, slots in recoveries:
+        output_file.write(f"\tNODE\t[{process}]\tDOWNTIME\t[{downtime}ms]\tRELOAD\t[{reload}us]\tCATCH-UP\t[{catchup}ms]\tSLOTS\t[{slots}]\n")
+    # ignore the buckets before the first decision and the last partial bucket
+    while timeline and timeline[0] == 0:
+        timeline.pop(0)
+    if len(timeline) > 2:
+        steady = sorted(timeline[:-1])
+        median = steady[len(steady) // 2]
+        lowest = steady[0]
+        dip = 100 * (1 - lowest / median) if median > 0 else 0
+        output_file.write(f"\tTHROUGHPUT\tMEDIAN\t[{median * 1000 // bucket} commands/s]\tLOWEST\t[{lowest * 1000 // bucket} commands/s]\tDIP\t[{dip:.1f}%]\n")
@@ -1,41 +1,15 @@
 @echo off
 
-setlocal enabledelayedexpansion
-
 del summary\*.txt
 del logs\*.txt
 
-@REM set LEADER_ELECTION_TIMEOUT=50
-set BOUND_OF_PROPOSED_NUMBER=2
-set ABORT_TIMEOUT=100
-
-@REM CRASH_PROBABILITY
-for %%a in (0, 0.1, 0.5, 1) do (
-    @REM N
-    for %%b in (3, 10, 50, 100) do (
-		@REM tle
-        for %%c in (10, 50, 100, 500, 1000) do (
-            @REM CRASH_NUMBER
-            set /a temp=%%b+1
-            set /a CRASH_NUMBER=!temp!/2-1
-
-            @REM write to param.txt
-            echo N = %%b> param.txt
-            echo LEADER_ELECTION_TIMEOUT = %%c>> param.txt
-            echo CRASH_NUMBER = !CRASH_NUMBER!>> param.txt
-            echo CRASH_PROBABILITY = %%a>> param.txt
-            echo BOUND_OF_PROPOSED_NUMBER = !BOUND_OF_PROPOSED_NUMBER!>> param.txt
-            echo ABORT_TIMEOUT = !ABORT_TIMEOUT!>> param.txt
-
-            @REM call mvn compile
-            call mvn exec:exec > logs/log.txt
-            call python process.py
-
-        )
-        
-    )
-)
+@REM every combination of CRASH_PROBABILITY, N and LEADER_ELECTION_TIMEOUT in one JVM, CRASH_NUMBER = (N + 1) / 2 - 1
+@REM the other parameters come from param.txt
+call mvn compile
+call mvn dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+set /p CLASSPATH=<target\classpath.txt
+java -cp target\classes;%CLASSPATH% demo.Sweep CRASH_PROBABILITY=0,0.1,0.5,1 N=3,10,50,100 LEADER_ELECTION_TIMEOUT=10,50,100,500,1000 > logs/log.txt
 
 call python analyze.py
 
-echo Finished.
\ No newline at end of file
+echo Finished.
@@ -0,0 +1,24 @@
+@echo off
+
+setlocal enabledelayedexpansion
+
+del summary\allocation.txt
+
+@REM allocation of a multi-Paxos run at N = 100 with the debug events disabled (INFO) and enabled (DEBUG), both on the current EventLog
+@REM this compares the two levels, not the logging before and after EventLog, see # Logging in README.md
+for %%a in (INFO, DEBUG) do (
+    @REM write to param.txt
+    echo N = 100> param.txt
+    echo LEADER_ELECTION_TIMEOUT = 50>> param.txt
+    echo CRASH_NUMBER = 49>> param.txt
+    echo CRASH_PROBABILITY = 0>> param.txt
+    echo BOUND_OF_PROPOSED_NUMBER = 2>> param.txt
+    echo ABORT_TIMEOUT = 100>> param.txt
+    echo NUMBER_OF_COMMANDS = 1000>> param.txt
+    echo LOG_LEVEL = %%a>> param.txt
+
+    call mvn exec:exec > logs/log.txt
+    findstr /c:"allocated [" logs\log.txt >> summary\allocation.txt
+)
+
+echo Finished.
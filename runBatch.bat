@@ -0,0 +1,40 @@
+@echo off
+
+setlocal enabledelayedexpansion
+
+del summary\throughput.txt
+
+set LEADER_ELECTION_TIMEOUT=50
+set CRASH_PROBABILITY=0
+set BOUND_OF_PROPOSED_NUMBER=2
+set ABORT_TIMEOUT=100
+set NUMBER_OF_COMMANDS=5000
+set PIPELINE_DEPTH=4
+set BATCH_TIMEOUT=5
+
+@REM N
+for %%b in (10, 50, 100) do (
+    @REM BATCH_SIZE, 1 first to measure the gain over unbatched mode
+    for %%s in (1, 8, 64, 256) do (
+        @REM CRASH_NUMBER
+        set /a temp=%%b+1
+        set /a CRASH_NUMBER=!temp!/2-1
+
+        @REM write to param.txt
+        echo N = %%b> param.txt
+        echo LEADER_ELECTION_TIMEOUT = !LEADER_ELECTION_TIMEOUT!>> param.txt
+        echo CRASH_NUMBER = !CRASH_NUMBER!>> param.txt
+        echo CRASH_PROBABILITY = !CRASH_PROBABILITY!>> param.txt
+        echo BOUND_OF_PROPOSED_NUMBER = !BOUND_OF_PROPOSED_NUMBER!>> param.txt
+        echo ABORT_TIMEOUT = !ABORT_TIMEOUT!>> param.txt
+        echo NUMBER_OF_COMMANDS = !NUMBER_OF_COMMANDS!>> param.txt
+        echo PIPELINE_DEPTH = !PIPELINE_DEPTH!>> param.txt
+        echo BATCH_SIZE = %%s>> param.txt
+        echo BATCH_TIMEOUT = !BATCH_TIMEOUT!>> param.txt
+
+        call mvn exec:exec > logs/log.txt
+        call python throughput.py
+    )
+)
+
+echo Finished.
@@ -0,0 +1,10 @@
+@echo off
+
+@REM JMH benchmarks of a full single-decree round, of a round under contention, of the quorums of a proposer, of the handlers of Process and of the messages
+call mvn -P jmh package exec:exec -Djmh.include=Round > summary/round.txt
+call mvn -P jmh package exec:exec -Djmh.include=Contention > summary/contention.txt
+call mvn -P jmh package exec:exec -Djmh.include=Quorum > summary/quorum.txt
+call mvn -P jmh package exec:exec -Djmh.include=Handler > summary/handlers.txt
+call mvn -P jmh package exec:exec -Djmh.include=Serialization > summary/serialization.txt
+
+echo Finished.
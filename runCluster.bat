@@ -0,0 +1,49 @@
+@echo off
+
+setlocal enabledelayedexpansion
+
+del summary\throughput.txt
+
+set N=10
+set CRASH_NUMBER=4
+
+@REM classpath of the extra JVMs
+call mvn compile
+call mvn dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+set /p CLASSPATH=<target\classpath.txt
+set CLASSPATH=target\classes;!CLASSPATH!
+
+@REM CLUSTER, none runs every process in the JVM of the driver
+for %%a in (none, cluster.txt) do (
+    @REM TRANSPORT between the JVMs
+    for %%t in (akka, nio) do (
+        set SKIP=0
+        if "%%a"=="none" if "%%t"=="nio" set SKIP=1
+        if !SKIP!==0 (
+            @REM write to param.txt
+            echo N = !N!> param.txt
+            echo LEADER_ELECTION_TIMEOUT = 50>> param.txt
+            echo CRASH_NUMBER = !CRASH_NUMBER!>> param.txt
+            echo CRASH_PROBABILITY = 0>> param.txt
+            echo BOUND_OF_PROPOSED_NUMBER = 2>> param.txt
+            echo ABORT_TIMEOUT = 100>> param.txt
+            echo NUMBER_OF_COMMANDS = 1000>> param.txt
+            echo PIPELINE_DEPTH = 8>> param.txt
+            echo CLUSTER = %%a>> param.txt
+            echo TRANSPORT = %%t>> param.txt
+
+            del logs\node*.txt
+            @REM nodes 1 and 2 of cluster.txt, they leave when the driver terminates
+            if not "%%a"=="none" (
+                start /b java -cp !CLASSPATH! demo.Main 1 > logs/node1.txt
+                start /b java -cp !CLASSPATH! demo.Main 2 > logs/node2.txt
+            )
+            java -cp !CLASSPATH! demo.Main > logs/log.txt
+            timeout /t 5 > nul
+            if not "%%a"=="none" type logs\node*.txt >> logs\log.txt
+            call python throughput.py
+        )
+    )
+)
+
+echo Finished.
@@ -0,0 +1,36 @@
+@echo off
+
+setlocal enabledelayedexpansion
+
+del summary\throughput.txt
+
+set LEADER_ELECTION_TIMEOUT=50
+set CRASH_PROBABILITY=0
+set BOUND_OF_PROPOSED_NUMBER=2
+set ABORT_TIMEOUT=100
+set NUMBER_OF_COMMANDS=2000
+
+@REM N
+for %%b in (10, 50, 100) do (
+    @REM PIPELINE_DEPTH
+    for %%w in (1, 2, 4, 8, 16, 32) do (
+        @REM CRASH_NUMBER
+        set /a temp=%%b+1
+        set /a CRASH_NUMBER=!temp!/2-1
+
+        @REM write to param.txt
+        echo N = %%b> param.txt
+        echo LEADER_ELECTION_TIMEOUT = !LEADER_ELECTION_TIMEOUT!>> param.txt
+        echo CRASH_NUMBER = !CRASH_NUMBER!>> param.txt
+        echo CRASH_PROBABILITY = !CRASH_PROBABILITY!>> param.txt
+        echo BOUND_OF_PROPOSED_NUMBER = !BOUND_OF_PROPOSED_NUMBER!>> param.txt
+        echo ABORT_TIMEOUT = !ABORT_TIMEOUT!>> param.txt
+        echo NUMBER_OF_COMMANDS = !NUMBER_OF_COMMANDS!>> param.txt
+        echo PIPELINE_DEPTH = %%w>> param.txt
+
+        call mvn exec:exec > logs/log.txt
+        call python throughput.py
+    )
+)
+
+echo Finished.
@@ -0,0 +1,6 @@
+@echo off
+
+@REM compare the binary encoding of the messages with Java serialization (size and ns/op)
+call mvn -P jmh package exec:exec -Djmh.include=Serialization > summary/serialization.txt
+
+echo Finished.
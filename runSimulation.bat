@@ -0,0 +1,7 @@
+@echo off
+
+@REM sweep of run.bat in virtual time, deterministic for a given SEED
+call mvn compile
+java -cp target/classes demo.Simulator SEED=42 LATENCY=exp:20:80 SERVICE_TIME=5
+
+echo Finished.
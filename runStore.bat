@@ -0,0 +1,6 @@
+@echo off
+
+@REM compare the write-ahead log and the memory-mapped register (JMH, durable update latency and restart time)
+call mvn -P jmh package exec:exec -Djmh.include=Store > summary/store.txt
+
+echo Finished.
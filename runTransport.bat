@@ -0,0 +1,6 @@
+@echo off
+
+@REM compare Akka remoting and the NIO transport on loopback (JMH, messages/s and round-trip latency)
+call mvn -P jmh package exec:exec -Djmh.include=Transport > summary/transport.txt
+
+echo Finished.
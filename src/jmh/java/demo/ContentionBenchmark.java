@@ -0,0 +1,157 @@
+/**
+ * @file ContentionBenchmark.java
+ * @brief File containing the JMH benchmark of a single-decree round with every process proposing
+*/
+package demo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class ContentionBenchmark
+ * @brief N state machines proposing at once until the first decision, the messages in flight being delivered in random order
+ *
+ * After an ABORT a process backs off as with ABORT_TIMEOUT > 0: its RETRY joins the messages in flight, so the others may run several ballots before it re-proposes.
+ * Once ELECTION_WAVES * N^2 messages are delivered, process 1 is elected as by Omega: the others hold and it proposes again, usually a few ballots behind the acceptors.
+ * nack = echo hands the rejected ballot to onAbort as the highest ballot of the acceptor, like the ABORT that only echoed it:
+ * the proposer then moves up one round at a time. nack = highest passes the ballot carried by the ABORT.
+ * The mean number of ballots (READs) and of ABORTs per decision, and of ballots of process 1 from its election to the decision, is printed at the end of the trial.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContentionBenchmark {
+	static final int MAX_STEPS = 10_000_000; // A round without decision after this many steps is counted as it stands
+	static final int ELECTION_WAVES = 4; // Waves of N^2 messages, one READ per process to every process, before process 1 is elected
+
+	@Param({"3", "10", "50"})
+	public int N;
+
+	@Param({"echo", "highest"})
+	public String nack;
+
+	private final Random random = new Random(1);
+	private boolean echo;
+	private long rounds = 0, ballots = 0, aborts = 0;
+	private long elections = 0, leaderBallots = 0; // Rounds reaching the election, ballots of process 1 from its election to the decision
+	private boolean elected;
+
+	// Messages in flight: to, from, kind, ballot, value, extra
+	private long[] pending;
+	private int size;
+
+	@Setup
+	public void setup() {
+		echo = nack.equals("echo");
+		pending = new long[6 * (4 * N + 4)];
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.out.println(String.format("%n[N = %d, nack = %s] [%.2f] ballots and [%.2f] ABORTs per decision over [%d] rounds, [%.2f] ballots of the leader once elected in the [%d] rounds undecided at the election",
+			N, nack, (double) ballots / rounds, (double) aborts / rounds, rounds, (double) leaderBallots / elections, elections));
+	}
+
+	/**
+	 * @return The number of ballots until the first decision
+	*/
+	@Benchmark
+	public int round() {
+		Paxos[] processes = new Paxos[N + 1];
+		for (int i = 1; i <= N; i++) processes[i] = new Paxos(i, N, 0, 1, random);
+		size = 0;
+		elected = false;
+		int roundBallots = 0;
+		for (int i = 1; i <= N; i++) {
+			processes[i].propose(random.nextInt(2));
+			roundBallots += send(i, 0, processes[i].out);
+		}
+		for (int steps = 0; size > 0 && steps < MAX_STEPS; steps++) {
+			if (steps == ELECTION_WAVES * N * N) {
+				for (int i = 2; i <= N; i++) processes[i].hold();
+				processes[1].lead();
+				elected = true;
+				elections++;
+				roundBallots += send(1, 0, processes[1].out);
+			}
+			// Removes a random message, the last one taking its place
+			int at = 6 * random.nextInt(size / 6);
+			int to = (int) pending[at], from = (int) pending[at + 1], kind = (int) pending[at + 2], value = (int) pending[at + 4];
+			long b = pending[at + 3], extra = pending[at + 5];
+			size -= 6;
+			System.arraycopy(pending, size, pending, at, 6);
+			Paxos p = processes[to];
+			switch (kind) {
+				case Paxos.Outputs.READ: p.onRead(b); break;
+				case Paxos.Outputs.GATHER: p.onGather(from, b, extra, value); break;
+				case Paxos.Outputs.IMPOSE: p.onImpose(b, value); break;
+				case Paxos.Outputs.ACK: p.onACK(from, b); break;
+				case Paxos.Outputs.ABORT:
+					aborts++;
+					p.onAbort(b, echo ? b : extra);
+					break;
+				case Paxos.Outputs.BACKOFF: p.retry(b); break;
+			}
+			if (p.isDecided()) break;
+			roundBallots += send(to, from, p.out);
+		}
+		rounds++;
+		ballots += roundBallots;
+		return roundBallots;
+	}
+
+	/**
+	 * @return The number of READs sent
+	*/
+	private int send(int self, int sender, Paxos.Outputs out) {
+		int reads = 0;
+		for (int k = 0; k < out.size(); k++) {
+			int kind = out.kind(k);
+			switch (kind) {
+				case Paxos.Outputs.READ:
+					reads++;
+					if (elected && self == 1) leaderBallots++;
+				case Paxos.Outputs.IMPOSE:
+					for (int i = 1; i <= N; i++) enqueue(i, self, kind, out.ballot(k), out.value(k), out.extra(k));
+					break;
+				case Paxos.Outputs.GATHER:
+				case Paxos.Outputs.ACK:
+				case Paxos.Outputs.ABORT:
+					enqueue(sender, self, kind, out.ballot(k), out.value(k), out.extra(k));
+					break;
+				case Paxos.Outputs.BACKOFF:
+					enqueue(self, self, kind, out.ballot(k), 0, 0);
+					break;
+			}
+		}
+		return reads;
+	}
+
+	private void enqueue(int to, int from, int kind, long ballot, int value, long extra) {
+		if (size + 6 > pending.length) pending = Arrays.copyOf(pending, pending.length * 2);
+		pending[size] = to;
+		pending[size + 1] = from;
+		pending[size + 2] = kind;
+		pending[size + 3] = ballot;
+		pending[size + 4] = value;
+		pending[size + 5] = extra;
+		size += 6;
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * @file HandlerBenchmark.java
+ * @brief File containing the JMH benchmark of the message handlers of Process in isolation
+*/
+package demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.TestActorRef;
+
+import demo.Main.*;
+
+/**
+ * @class HandlerBenchmark
+ * @brief Cost of one handler call, run in the benchmark thread through a TestActorRef
+ *
+ * Every peer of the process is a sink actor dropping the replies, so the cost includes the tell of each reply but no other process.
+ * The peers are distinct actors, as the proposer counts one GATHER per sender.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerBenchmark {
+	static final int ID = 1;
+
+	@Param({"3", "10", "100"})
+	public int N;
+
+	private ActorSystem system;
+	private ActorRef sink;
+	private ActorRef[] actors;
+	private TestActorRef<Process> process;
+	private long round;
+
+	@Setup
+	public void setup() {
+		system = ActorSystem.create(Cluster.SYSTEM, ConfigFactory.parseString("akka.loglevel = WARNING").withFallback(ConfigFactory.load()));
+		Main.CRASH_PROBABILITY = 0;
+		Main.BOUND_OF_PROPOSED_NUMBER = 2;
+		Main.NUMBER_OF_COMMANDS = 0;
+		Main.DURABILITY = "none";
+		actors = new ActorRef[N];
+		for (int i = 0; i < N; i++) actors[i] = system.actorOf(Props.create(Sink.class, Sink::new), "Sink" + (i + 1));
+		sink = actors[N - 1];
+		process = TestActorRef.create(system, Process.createActor(ID), "Actor" + ID);
+		process.receive(new ActorinfoMessage(actors), ActorRef.noSender());
+		round = 0;
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		system.terminate();
+		system.getWhenTerminated().toCompletableFuture().get();
+	}
+
+	/**
+	 * @brief Acceptor answering a READ of a higher ballot with a GATHER
+	*/
+	@Benchmark
+	public void read() {
+		process.receive(new ReadMessage(Ballot.of(++round, ID)), sink);
+	}
+
+	/**
+	 * @brief Acceptor answering an IMPOSE of a higher ballot with an ACK
+	*/
+	@Benchmark
+	public void impose() {
+		process.receive(new ImposeMessage(Ballot.of(++round, ID), 1), sink);
+	}
+
+	/**
+	 * @brief Acceptor answering a READ of a lower ballot with an ABORT
+	*/
+	@Benchmark
+	public void readAbort() {
+		if (round == 0) process.receive(new ImposeMessage(Ballot.of(++round, ID), 1), sink);
+		process.receive(new ReadMessage(Ballot.of(0, ID)), sink);
+	}
+
+	/**
+	 * @brief Proposer phase 1: propose to N peers, then a GATHER quorum and the IMPOSE to N peers
+	*/
+	@Benchmark
+	public void proposeAndGather() {
+		process.underlyingActor().propose(1);
+		long ballot = Ballot.of(++round, ID);
+		for (int i = 0; i <= N / 2; i++) {
+			process.receive(new GatherMessage(ballot, 0, 0), actors[i]);
+		}
+	}
+
+	/**
+	 * @class Sink
+	 * @brief Drops every message
+	*/
+	static class Sink extends AbstractActor {
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder().matchAny(m -> {}).build();
+		}
+	}
+}
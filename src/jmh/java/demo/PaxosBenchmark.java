@@ -0,0 +1,126 @@
+/**
+ * @file PaxosBenchmark.java
+ * @brief File containing the JMH benchmark of the Paxos state machine without actors
+*/
+package demo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class PaxosBenchmark
+ * @brief Steps of one state machine, and a full round of N state machines exchanging their outputs through a FIFO queue of ints
+ *
+ * The number of steps of a round is printed during the setup, its time divided by the steps gives the steps/second.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaxosBenchmark {
+	@Param({"3", "10", "100"})
+	public int N;
+
+	private final Random random = new Random(1);
+	private Paxos acceptor;
+	private long round;
+
+	// Messages in flight: to, from, kind, ballot, value, extra
+	private long[] queue;
+	private int head, tail;
+
+	@Setup
+	public void setup() {
+		acceptor = new Paxos(1, N, 0, random);
+		round = 0;
+		queue = new long[6 * (4 * N + 4)];
+		System.out.println("\n[N = " + N + "] round of [" + round() + "] steps");
+	}
+
+	@Benchmark
+	public int read() {
+		acceptor.onRead(Ballot.of(++round, 1));
+		return acceptor.out.size();
+	}
+
+	@Benchmark
+	public int impose() {
+		acceptor.onImpose(Ballot.of(++round, 1), 1);
+		return acceptor.out.size();
+	}
+
+	/**
+	 * @brief Process 1 proposes to N fresh processes until every process learns the value
+	 * @return The number of steps
+	*/
+	@Benchmark
+	public int round() {
+		Paxos[] processes = new Paxos[N + 1];
+		for (int i = 1; i <= N; i++) processes[i] = new Paxos(i, N, 0, random);
+		head = tail = 0;
+		processes[1].propose(1);
+		send(1, 0, processes[1].out);
+		int steps = 1;
+		while (head < tail) {
+			int to = (int) queue[head], from = (int) queue[head + 1], kind = (int) queue[head + 2], value = (int) queue[head + 4];
+			long b = queue[head + 3], extra = queue[head + 5];
+			head += 6;
+			Paxos p = processes[to];
+			switch (kind) {
+				case Paxos.Outputs.READ: p.onRead(b); break;
+				case Paxos.Outputs.GATHER: p.onGather(from, b, extra, value); break;
+				case Paxos.Outputs.IMPOSE: p.onImpose(b, value); break;
+				case Paxos.Outputs.ACK: p.onACK(from, b); break;
+				case Paxos.Outputs.ABORT: p.onAbort(b, extra); break;
+				case Paxos.Outputs.DECIDE: p.onDecide(value); break;
+			}
+			send(to, from, p.out);
+			steps++;
+		}
+		return steps;
+	}
+
+	private void send(int self, int sender, Paxos.Outputs out) {
+		for (int k = 0; k < out.size(); k++) {
+			int kind = out.kind(k);
+			switch (kind) {
+				case Paxos.Outputs.READ:
+				case Paxos.Outputs.IMPOSE:
+				case Paxos.Outputs.DECIDE:
+					for (int i = 1; i <= N; i++) enqueue(i, self, kind, out.ballot(k), out.value(k), out.extra(k));
+					break;
+				case Paxos.Outputs.GATHER:
+				case Paxos.Outputs.ACK:
+				case Paxos.Outputs.ABORT:
+					enqueue(sender, self, kind, out.ballot(k), out.value(k), out.extra(k));
+					break;
+			}
+		}
+	}
+
+	private void enqueue(int to, int from, int kind, long ballot, int value, long extra) {
+		if (tail + 6 > queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+		queue[tail] = to;
+		queue[tail + 1] = from;
+		queue[tail + 2] = kind;
+		queue[tail + 3] = ballot;
+		queue[tail + 4] = value;
+		queue[tail + 5] = extra;
+		tail += 6;
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * @file QuorumBenchmark.java
+ * @brief File containing the JMH benchmark of the replies counted by a proposer
+*/
+package demo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class QuorumBenchmark
+ * @brief One GATHER or ACK handled by a proposer, in a loop of proposals each reaching its GATHER then its ACK quorum, and one proposal alone
+ *
+ * In reply() the cost of propose() and of the quorums is spread over the N / 2 + 1 GATHERs and ACKs of each proposal.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuorumBenchmark {
+	@Param({"10", "100", "1000"})
+	public int N;
+
+	private Paxos proposer;
+	private long ballot;
+	private int from;
+	private boolean gathering;
+
+	@Setup
+	public void setup() {
+		proposer = new Paxos(1, N, 0, new Random(1));
+		next();
+	}
+
+	private void next() {
+		proposer.propose(1);
+		ballot = proposer.out.ballot(0);
+		from = 1;
+		gathering = true;
+	}
+
+	/**
+	 * @brief Starts the next ballot, the replies to the previous one being forgotten
+	*/
+	@Benchmark
+	public long propose() {
+		proposer.propose(1);
+		return proposer.out.ballot(0);
+	}
+
+	@Benchmark
+	public int reply() {
+		if (gathering) proposer.onGather(from, ballot, from, from);
+		else proposer.onACK(from, ballot);
+		if (from++ == N / 2 + 1) {
+			if (gathering) {
+				from = 1;
+				gathering = false;
+			}
+			else next();
+		}
+		return proposer.out.size();
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * @file RoundBenchmark.java
+ * @brief File containing the JMH benchmark of a full single-decree round
+*/
+package demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+
+import demo.Main.*;
+
+/**
+ * @class RoundBenchmark
+ * @brief Time from the LAUNCH of N fresh processes to the first ACK quorum, every process proposing and none crashing
+ *
+ * The actor system is shared by the rounds of a trial, the processes of a round are stopped after it.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundBenchmark {
+	static final int ROUND_TIMEOUT = 30; // s
+
+	@Param({"3", "10", "50", "100"})
+	public int N;
+
+	private ActorSystem system;
+	private ActorRef[] actors;
+
+	@Setup
+	public void setup() {
+		system = ActorSystem.create(Cluster.SYSTEM, ConfigFactory.parseString("akka.loglevel = WARNING").withFallback(ConfigFactory.load()));
+		Main.CRASH_PROBABILITY = 0;
+		Main.BOUND_OF_PROPOSED_NUMBER = 2;
+		// Values of param.txt: with t_le = 0 every tick suspects the leader, and the processes keep leading in turn
+		Main.LEADER_ELECTION_TIMEOUT = 1000;
+		Main.HEARTBEAT_INTERVAL = 10;
+		Main.FAILURE_DETECTOR = "fixed";
+		Main.ABORT_TIMEOUT = 100;
+		Main.NUMBER_OF_COMMANDS = 0;
+		Main.DURABILITY = "none";
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		system.terminate();
+		system.getWhenTerminated().toCompletableFuture().get();
+	}
+
+	@Setup(Level.Invocation)
+	public void createProcesses() {
+		actors = new ActorRef[N];
+		for (int i = 0; i < N; i++) actors[i] = system.actorOf(Process.createActor(i + 1));
+	}
+
+	@TearDown(Level.Invocation)
+	public void stopProcesses() {
+		for (ActorRef actor : actors) system.stop(actor);
+	}
+
+	@Benchmark
+	public long round() throws Exception {
+		Metrics metrics = new Metrics();
+		ActorinfoMessage info = new ActorinfoMessage(actors);
+		info.metrics = metrics;
+		for (ActorRef actor : actors) actor.tell(info, ActorRef.noSender());
+		LaunchMessage launch = new LaunchMessage();
+		for (ActorRef actor : actors) actor.tell(launch, ActorRef.noSender());
+		return metrics.firstDecision().get(ROUND_TIMEOUT, TimeUnit.SECONDS);
+	}
+}
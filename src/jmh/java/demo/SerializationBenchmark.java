@@ -0,0 +1,122 @@
+/**
+ * @file SerializationBenchmark.java
+ * @brief File containing the JMH benchmark of PaxosCodec against Java serialization
+*/
+package demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import demo.Main.*;
+
+/**
+ * @class SerializationBenchmark
+ * @brief Construction, serialization and deserialization time of each message type, the sizes are printed during the setup
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+	@Param({"read", "gather", "impose", "ack", "decide", "abort", "batchImpose", "batchGather"})
+	public String message;
+
+	private Object value;
+	private byte[] binary;
+	private byte[] java;
+
+	@Setup
+	public void setup() throws IOException {
+		value = create(message);
+		binary = PaxosCodec.encode(value);
+		java = javaSerialize(value);
+		System.out.println("\n[" + message + "] binary [" + binary.length + " bytes] java [" + java.length + " bytes]");
+	}
+
+	/**
+	 * @brief Builds a message with the field values of a run with N = 100 processes
+	 * @param message The message type
+	*/
+	static Object create(String message) {
+		switch (message) {
+			case "read": return new ReadMessage(Ballot.of(3, 37));
+			case "gather": return new GatherMessage(Ballot.of(3, 37), Ballot.of(2, 37), 1);
+			case "impose": return new ImposeMessage(Ballot.of(3, 37), 1);
+			case "ack": return new ACKMessage(Ballot.of(3, 37));
+			case "decide": return new DecideMessage(1);
+			case "abort": return new AbortMessage(Ballot.of(3, 37), Ballot.of(4, 37));
+			case "batchImpose": return new ImposeMessage(Ballot.of(3, 37), 4242, batch());
+			case "batchGather": {
+				int[] batch = batch();
+				long[] imposeBallots = new long[8];
+				int[][] estimates = new int[8][];
+				for (int i = 0; i < estimates.length; i++) {
+					imposeBallots[i] = Ballot.of(2, 37);
+					estimates[i] = new int[batch.length];
+					for (int j = 0; j < batch.length; j++) estimates[i][j] = batch[j] + batch.length * i;
+				}
+				return new GatherMessage(Ballot.of(3, 37), 4242, imposeBallots, estimates);
+			}
+			default: throw new IllegalArgumentException(message);
+		}
+	}
+
+	static int[] batch() {
+		int[] batch = new int[16];
+		for (int i = 0; i < batch.length; i++) batch[i] = 1000 + i;
+		return batch;
+	}
+
+	static byte[] javaSerialize(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public Object construct() {
+		return create(message);
+	}
+
+	@Benchmark
+	public byte[] binarySerialize() {
+		return PaxosCodec.encode(value);
+	}
+
+	@Benchmark
+	public Object binaryDeserialize() {
+		return PaxosCodec.decode(binary);
+	}
+
+	@Benchmark
+	public byte[] javaSerialize() throws IOException {
+		return javaSerialize(value);
+	}
+
+	@Benchmark
+	public Object javaDeserialize() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(java))) {
+			return in.readObject();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * @file StoreBenchmark.java
+ * @brief File containing the JMH benchmark of the write-ahead log against the memory-mapped register
+*/
+package demo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @class StoreBenchmark
+ * @brief Latency of a durable acceptor update and restart time of every store, the sampled times giving the percentiles
+ *
+ * update() replays the acceptor updates of a single-decree run, a READ then an IMPOSE, each made durable before the reply.
+ * restart() reopens a store holding MESSAGES updates and loads the register.
+*/
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StoreBenchmark {
+	static final int MESSAGES = 10000;
+
+	@Param({"wal", "mmap-force", "mmap"})
+	public String store;
+
+	private Path updated, restarted;
+	private AcceptorStore updates;
+	private long ballot = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		updated = Paths.get("wal", "benchmark-" + store + ".update");
+		restarted = Paths.get("wal", "benchmark-" + store + ".restart");
+		AcceptorStore written = open(restarted, false);
+		for (int i = 0; i < MESSAGES; i++) update(written, i);
+		written.close();
+		updates = open(updated, false);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		updates.close();
+	}
+
+	@Benchmark
+	public void update() throws IOException {
+		update(updates, ballot++);
+	}
+
+	@Benchmark
+	public long restart() throws IOException {
+		AcceptorStore reopened = open(restarted, true);
+		long[] register = reopened.load();
+		reopened.close();
+		return register[1];
+	}
+
+	private static void update(AcceptorStore store, long i) throws IOException {
+		if (i % 2 == 0) store.saveRead(i);
+		else store.saveImpose(i, (int) (i & 1));
+		store.sync();
+	}
+
+	/**
+	 * @param path The file of the store
+	 * @param recover true to keep its content, false to start from an empty store
+	*/
+	private AcceptorStore open(Path path, boolean recover) throws IOException {
+		switch (store) {
+			case "wal": return new WriteAheadLog(path, recover);
+			case "mmap-force": return new MappedAcceptorState(path, true, recover);
+			case "mmap": return new MappedAcceptorState(path, false, recover);
+			default: throw new IllegalArgumentException(store);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * @file TransportBenchmark.java
+ * @brief File containing the JMH benchmark of Akka remoting against the NIO transport between two actor systems on loopback
+*/
+package demo;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+
+import demo.Main.*;
+
+/**
+ * @class TransportBenchmark
+ * @brief Process 1 sends IMPOSE messages to process 2 in another actor system, which answers each with an ACK
+ *
+ * exchange() keeps `window` IMPOSE messages in flight and counts the messages of both directions per second.
+ * roundTrip() sends one IMPOSE at a time, the sampled times giving the percentiles of the round-trip latency.
+*/
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransportBenchmark {
+	static final int AKKA_PORT = 25600;
+	static final int NIO_PORT = 25610;
+	static final int MESSAGES = 1000; // IMPOSE messages per invocation of exchange()
+	static final int TIMEOUT = 60; // s
+
+	@Param({"akka", "nio"})
+	public String transport;
+
+	private ActorSystem a, b;
+	private ActorRef sender, receiver;
+	private NioTransport nioA, nioB;
+
+	/**
+	 * @class Window
+	 * @brief The number of IMPOSE messages waiting for their ACK, only exchange() varies it
+	*/
+	@State(Scope.Thread)
+	public static class Window {
+		@Param({"1", "16", "256"})
+		public int window;
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		if ("akka".equals(transport)) {
+			a = ActorSystem.create(Cluster.SYSTEM, Cluster.config("127.0.0.1:" + AKKA_PORT));
+			b = ActorSystem.create(Cluster.SYSTEM, Cluster.config("127.0.0.1:" + (AKKA_PORT + 1)));
+			b.actorOf(Props.create(Echo.class, Echo::new), "Actor2");
+			receiver = Cluster.resolve(a, "127.0.0.1:" + (AKKA_PORT + 1), "Actor2");
+			sender = a.actorOf(Props.create(Pinger.class, Pinger::new), "Actor1");
+		}
+		else {
+			a = ActorSystem.create(Cluster.SYSTEM);
+			b = ActorSystem.create(Cluster.SYSTEM);
+			List<InetSocketAddress> addresses = Arrays.asList(new InetSocketAddress("127.0.0.1", NIO_PORT), new InetSocketAddress("127.0.0.1", NIO_PORT + 1));
+			nioA = new NioTransport(0, addresses);
+			nioB = new NioTransport(1, addresses);
+			sender = a.actorOf(Props.create(Pinger.class, Pinger::new), "Actor1");
+			receiver = a.actorOf(nioA.proxy(1, 2), "Proxy2");
+			nioA.setActors(new ActorRef[] {sender, receiver});
+			nioB.setActors(new ActorRef[] {b.actorOf(nioB.proxy(0, 1), "Proxy1"), b.actorOf(Props.create(Echo.class, Echo::new), "Actor2")});
+			NioTransport started = nioB;
+			Thread accepting = new Thread(() -> {
+				try {
+					started.start(Cluster.DISCOVERY_DEADLINE);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			});
+			accepting.start();
+			nioA.start(Cluster.DISCOVERY_DEADLINE);
+			accepting.join();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		if (nioA != null) {
+			System.out.println(String.format("\n[%s] frames per write [%.2f]", transport, nioA.framesPerWrite()));
+			nioA.close();
+			nioB.close();
+		}
+		a.terminate();
+		b.terminate();
+		a.getWhenTerminated().toCompletableFuture().get();
+		b.getWhenTerminated().toCompletableFuture().get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(2 * MESSAGES)
+	public long exchange(Window window) throws Exception {
+		return exchange(window.window, MESSAGES);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long roundTrip() throws Exception {
+		return exchange(1, 1);
+	}
+
+	/**
+	 * @return The elapsed time in ns
+	*/
+	private long exchange(int window, int messages) throws Exception {
+		Start start = new Start(receiver, window, messages);
+		sender.tell(start, ActorRef.noSender());
+		return start.done.get(TIMEOUT, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @class Start
+	 * @brief Starts a measurement, completed with the elapsed time in ns
+	*/
+	static class Start {
+		final ActorRef receiver;
+		final int window, messages;
+		final CompletableFuture<Long> done = new CompletableFuture<>();
+
+		Start(ActorRef receiver, int window, int messages) {
+			this.receiver = receiver;
+			this.window = window;
+			this.messages = messages;
+		}
+	}
+
+	/**
+	 * @class Pinger
+	 * @brief Keeps `window` IMPOSE messages in flight, the ballot carrying the sequence number
+	*/
+	static class Pinger extends AbstractActor {
+		private Start start;
+		private int sent, received;
+		private long begin;
+		private final int[] batch = {1, 2, 3, 4};
+
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+				.match(Start.class, this::receiveStart)
+				.match(ACKMessage.class, this::receiveACKMessage)
+				.build();
+		}
+
+		private void receiveStart(Start m) {
+			start = m;
+			sent = 0;
+			received = 0;
+			begin = System.nanoTime();
+			while (sent < Math.min(m.window, m.messages)) send();
+		}
+
+		private void send() {
+			start.receiver.tell(new ImposeMessage(sent, sent, batch), getSelf());
+			sent++;
+		}
+
+		private void receiveACKMessage(ACKMessage m) {
+			received++;
+			if (sent < start.messages) send();
+			if (received == start.messages) start.done.complete(System.nanoTime() - begin);
+		}
+	}
+
+	/**
+	 * @class Echo
+	 * @brief Answers every IMPOSE with an ACK of the same ballot and slot
+	*/
+	static class Echo extends AbstractActor {
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+				.match(ImposeMessage.class, m -> getSender().tell(new ACKMessage(m.ballot, m.slot), getSelf()))
+				.build();
+		}
+	}
+}
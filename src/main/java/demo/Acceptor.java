@@ -0,0 +1,63 @@
+/**
+ * @file Acceptor.java
+ * @brief File containing the ballots of an acceptor and the rule deciding which READ and IMPOSE it answers
+*/
+package demo;
+
+/**
+ * @class Acceptor
+ * @brief readBallot and imposeBallot of one process, shared by the single-decree protocol (Paxos) and the slots of multi-Paxos (Process)
+ *
+ * A READ or IMPOSE is answered unless the acceptor already answered a higher ballot, and is otherwise rejected with an ABORT carrying highest().
+ * In multi-Paxos imposeBallot is the highest ballot imposed in any slot, the ballot of each slot being kept by SlotLog.
+*/
+public final class Acceptor {
+	private long readBallot = 0, imposeBallot = 0; // See Ballot for the layout, 0 before the first READ or IMPOSE
+
+	/**
+	 * @brief Promises not to answer lower ballots
+	 * @return true if the READ is answered with a GATHER, false if it is rejected
+	*/
+	public boolean read(long ballot) {
+		if (rejects(ballot)) return false;
+		readBallot = ballot;
+		return true;
+	}
+
+	/**
+	 * @brief Accepts the estimate of the ballot
+	 * @return true if the IMPOSE is answered with an ACK, false if it is rejected
+	*/
+	public boolean impose(long ballot) {
+		if (rejects(ballot)) return false;
+		imposeBallot = ballot;
+		return true;
+	}
+
+	private boolean rejects(long ballot) {
+		return readBallot > ballot || imposeBallot > ballot;
+	}
+
+	/**
+	 * @return The ballot carried by an ABORT, the next ballot of the proposer goes past it
+	*/
+	public long highest() {
+		return Math.max(readBallot, imposeBallot);
+	}
+
+	public long readBallot() {
+		return readBallot;
+	}
+
+	public long imposeBallot() {
+		return imposeBallot;
+	}
+
+	/**
+	 * @brief Restores the ballots reloaded from the durable store after a restart
+	*/
+	public void restore(long readBallot, long imposeBallot) {
+		this.readBallot = readBallot;
+		this.imposeBallot = imposeBallot;
+	}
+}
@@ -0,0 +1,41 @@
+/**
+ * @file AcceptorStore.java
+ * @brief File containing the interface of the durable acceptor state
+*/
+package demo;
+
+import java.io.IOException;
+
+/**
+ * @interface AcceptorStore
+ * @brief Durable copy of readBallot, imposeBallot and estimate, updates become durable after sync()
+*/
+public interface AcceptorStore {
+	/**
+	 * @brief Records a new readBallot
+	 * @param ballot The ballot of the READ
+	*/
+	void saveRead(long ballot) throws IOException;
+
+	/**
+	 * @brief Records the estimate of the single-decree register
+	 * @param ballot The ballot of the IMPOSE
+	 * @param estimate The imposed value
+	*/
+	void saveImpose(long ballot, int estimate) throws IOException;
+
+	/**
+	 * @brief Makes every recorded update durable
+	*/
+	void sync() throws IOException;
+
+	/**
+	 * @brief Reads back the persisted state
+	 * @return {readBallot, imposeBallot, estimate} of the register
+	*/
+	long[] load() throws IOException;
+
+	long getSyncs();
+
+	void close() throws IOException;
+}
@@ -0,0 +1,42 @@
+/**
+ * @file Ballot.java
+ * @brief File containing the layout of the 64-bit ballots
+*/
+package demo;
+
+/**
+ * @class Ballot
+ * @brief A ballot is a long holding its round in the high 48 bits and the id of its proposer in the low 16 bits
+ *
+ * Ballots compare as longs, round first then id, and never overflow in practice. Round 0 is below every proposal:
+ * 0 is the ballot of an acceptor that read or accepted nothing, of(0, id) the ballot of a process before its first proposal.
+*/
+public final class Ballot {
+	static final int ID_BITS = 16;
+	static final int MAX_ID = (1 << ID_BITS) - 1; // Largest number of processes
+
+	private Ballot() {
+	}
+
+	public static long of(long round, int id) {
+		return round << ID_BITS | id;
+	}
+
+	public static long round(long ballot) {
+		return ballot >>> ID_BITS;
+	}
+
+	public static int id(long ballot) {
+		return (int) ballot & MAX_ID;
+	}
+
+	/**
+	 * @brief The first ballot of the proposer of ballot above both ballot and highest
+	 * @param ballot The last ballot of the proposer
+	 * @param highest The highest ballot seen in an ABORT, 0 if none
+	*/
+	public static long next(long ballot, long highest) {
+		long next = of(Math.max(round(ballot) + 1, round(highest)), id(ballot));
+		return next > highest ? next : next + (1L << ID_BITS);
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * @file Cluster.java
+ * @brief File containing the deployment of the processes over several JVMs connected by Akka remoting
+*/
+package demo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorNotFound;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import akka.actor.Terminated;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * @class Cluster
+ * @brief Nodes listed in the cluster file, one host:port per line, node 0 being the JVM of the driver
+ *
+ * Process i runs on node (i - 1) % nodes under the path akka.tcp://system@host:port/user/Actor<i>.
+*/
+public final class Cluster {
+	static final String SYSTEM = "system";
+	static final FiniteDuration RESOLVE_TIMEOUT = Duration.create(1, TimeUnit.SECONDS);
+	static final long DISCOVERY_DEADLINE = 60000; // Time to wait for the other nodes, in ms
+	static final int TRANSPORT_PORT_OFFSET = 1000; // The NIO transport of a node listens on its port + offset
+
+	private Cluster() {
+	}
+
+	/**
+	 * @brief Reads the addresses of the nodes, blank lines and lines starting with # are ignored
+	 * @param path The cluster file
+	*/
+	public static List<String> read(Path path) throws IOException {
+		List<String> nodes = new ArrayList<>();
+		for (String line : Files.readAllLines(path)) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")) nodes.add(line);
+		}
+		return nodes;
+	}
+
+	/**
+	 * @brief Remoting configuration of the actor system of a node
+	 * @param address The host:port of the node
+	*/
+	public static Config config(String address) {
+		String[] parts = address.split(":");
+		return ConfigFactory.parseString(
+			"akka.actor.provider = remote\n" +
+			"akka.remote.netty.tcp.hostname = \"" + parts[0] + "\"\n" +
+			"akka.remote.netty.tcp.port = " + parts[1] + "\n"
+		).withFallback(ConfigFactory.load());
+	}
+
+	/**
+	 * @brief Addresses of the NIO transport of every node
+	 * @param nodes The host:port of every node
+	*/
+	public static List<InetSocketAddress> transportAddresses(List<String> nodes) {
+		List<InetSocketAddress> addresses = new ArrayList<>();
+		for (String address : nodes) {
+			String[] parts = address.split(":");
+			addresses.add(new InetSocketAddress(parts[0], Integer.parseInt(parts[1]) + TRANSPORT_PORT_OFFSET));
+		}
+		return addresses;
+	}
+
+	/**
+	 * @return The node hosting the process
+	 * @param id The id of the process, from 1
+	 * @param nodes The number of nodes
+	*/
+	public static int nodeOf(int id, int nodes) {
+		return (id - 1) % nodes;
+	}
+
+	/**
+	 * @brief Looks up an actor of another node, retrying until the node is up
+	 * @param system The local actor system
+	 * @param address The host:port of the node
+	 * @param name The name of the actor
+	*/
+	public static ActorRef resolve(ActorSystem system, String address, String name) throws Exception {
+		String path = "akka.tcp://" + SYSTEM + "@" + address + "/user/" + name;
+		long deadline = System.currentTimeMillis() + DISCOVERY_DEADLINE;
+		while (true) {
+			try {
+				return Await.result(system.actorSelection(path).resolveOne(RESOLVE_TIMEOUT), RESOLVE_TIMEOUT);
+			} catch (ActorNotFound | TimeoutException e) {
+				if (System.currentTimeMillis() > deadline) throw e;
+				Thread.sleep(200);
+			}
+		}
+	}
+
+	/**
+	 * @brief Blocks until the actor stops, used by the nodes to leave when the driver terminates
+	*/
+	public static void awaitTermination(ActorSystem system, ActorRef actor) {
+		Inbox inbox = Inbox.create(system);
+		inbox.watch(actor);
+		while (true) {
+			try {
+				if (inbox.receive(Duration.create(1, TimeUnit.HOURS)) instanceof Terminated) return;
+			} catch (TimeoutException e) {
+				// Keep waiting
+			}
+		}
+	}
+}
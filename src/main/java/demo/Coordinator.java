@@ -0,0 +1,66 @@
+/**
+ * @file Coordinator.java
+ * @brief File containing the termination detection of a run
+*/
+package demo;
+
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+
+import demo.Main.*;
+
+/**
+ * @class Coordinator
+ * @brief Actor of the driver counting the processes that are done, decided or crashed for good, and ending the run when all are
+ *
+ * Every process sends one DONE when it learns the single-decree value or applies the last command, or when it crashes in the crash-stop model.
+ * A process reporting twice (a crash after its decision, a decision after a restart) is counted once.
+*/
+public class Coordinator extends AbstractActor {
+	static final String NAME = "coordinator";
+
+	private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
+	private final int N;
+	private final CompletableFuture<Void> done;
+	private final BitSet reported;
+	private int decided = 0, crashed = 0;
+
+	/**
+	 * @param N The number of processes
+	 * @param done Completed when every process is done
+	*/
+	public Coordinator(int N, CompletableFuture<Void> done) {
+		this.N = N;
+		this.done = done;
+		this.reported = new BitSet(N + 1);
+	}
+
+	public static Props createActor(int N, CompletableFuture<Void> done) {
+		return Props.create(Coordinator.class, () -> {
+			return new Coordinator(N, done);
+		});
+	}
+
+	@Override
+	public Receive createReceive() {
+		return receiveBuilder()
+			.match(DoneMessage.class, this::receiveDoneMessage)
+			.build();
+	}
+
+	public void receiveDoneMessage (DoneMessage m) {
+		if (reported.get(m.id)) return;
+		reported.set(m.id);
+		if (m.crashed) crashed++;
+		else decided++;
+		if (decided + crashed == N) {
+			log.info("/!\\ every process is done: [" + decided + "] decided, [" + crashed + "] crashed");
+			done.complete(null);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * @file EventLog.java
+ * @brief File containing the logging facility of the message handlers
+*/
+package demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import akka.actor.ActorRef;
+import akka.event.LoggingAdapter;
+
+/**
+ * @class EventLog
+ * @brief Logs events from pre-split templates and primitive arguments, the level is checked before any formatting
+ *
+ * A disabled event allocates nothing. An enabled one is formatted in a builder reused by the process, and only the final String is allocated.
+*/
+public final class EventLog {
+
+	/**
+	 * @enum Event
+	 * @brief Template of every event, {self} is the name of the process, {peer} the name of the sender and {} the next argument
+	*/
+	public enum Event {
+		ACTORINFO(false, "[{self}] received ACTORINFO from [{peer}]"),
+		LAUNCH(false, "[{self}] received LAUNCH from [{peer}]"),
+		CRASH(false, "[{self}] received CRASH from [{peer}]"),
+		LEADER(false, "[{self}] trusts [{}] as the leader"),
+		CRASHED(false, "[{self}] crashed"),
+		RESTARTED(false, "[{self}] restarted (readBallot [{}], imposeBallot [{}], estimate [{}])"),
+		CLOSING_STORE(false, "[{self}] closing store after [{}] syncs"),
+		PROPOSED(false, "[{self}] proposed (value [{}], ballot [{}])"),
+		READ(false, "[{self}] received READ from [{peer}], ballot [{}]"),
+		ABORT(false, "[{self}] received ABORT from [{peer}], ballot [{}], maxAbortBallot [{}]"),
+		REPROPOSE(false, "[{self}] RE-PROPOSE, ballot [{}], maxAbortBallot [{}]"),
+		BACKOFF(false, "[{self}] backs off [{}]us before re-proposing after ballot [{}]"),
+		GATHER(false, "[{self}] received GATHER from [{peer}], (ballot [{}], imposeBallot [{}], estimate [{}])"),
+		IMPOSE(false, "[{self}] received IMPOSE from [{peer}], (ballot [{}], proposal [{}])"),
+		ACK(false, "[{self}] received ACK from [{peer}], ballot [{}]"),
+		DECIDE(true, "/!\\ [{self}] received DECIDE from [{peer}], proposal [{}]"),
+		DECIDED(true, "/!\\ Total time for the Process [{}] to decide (value [{}] ballot [{}]): {}ms"),
+		CATCHUP(false, "[{self}] received CATCHUP from [{peer}], slot [{}]"),
+		CATCHUP_REPLY(false, "[{self}] received CATCHUP REPLY from [{peer}], (slot [{}], slots [{}])"),
+		RECOVERED(true, "/!\\ Process [{}] recovered: downtime [{}ms] reload [{}us] catch-up [{}ms] slots [{}]"),
+		SLOT_PROPOSED(false, "[{self}] proposed (slot [{}], ballot [{}])"),
+		SLOT_READ(false, "[{self}] received READ from [{peer}], (ballot [{}], slot [{}])"),
+		SLOT_REPROPOSE(false, "[{self}] RE-PROPOSE, ballot [{}]"),
+		SLOT_GATHER(false, "[{self}] received GATHER from [{peer}], (ballot [{}], slot [{}], entries [{}])"),
+		LEADS(false, "[{self}] leads from slot [{}] with ballot [{}]"),
+		SLOT_IMPOSE(false, "[{self}] received IMPOSE from [{peer}], (ballot [{}], slot [{}], batch [{}])"),
+		SLOT_ACK(false, "[{self}] received ACK from [{peer}], (ballot [{}], slot [{}])"),
+		SLOT_DECIDE(false, "[{self}] received DECIDE from [{peer}], (slot [{}], batch [{}])"),
+		SNAPSHOT_TAKEN(false, "[{self}] snapshot at slot [{}]"),
+		SNAPSHOT(false, "[{self}] received SNAPSHOT from [{peer}], slot [{}]");
+
+		static final int TEXT = 0, SELF = 1, PEER = 2, ARGUMENT = 3;
+
+		final boolean info; // INFO level if true, DEBUG otherwise
+		final String[] texts;
+		final int[] kinds;
+
+		Event(boolean info, String template) {
+			this.info = info;
+			List<String> texts = new ArrayList<>();
+			List<Integer> kinds = new ArrayList<>();
+			int start = 0;
+			while (start < template.length()) {
+				int open = template.indexOf('{', start);
+				int close = open < 0 ? -1 : template.indexOf('}', open);
+				if (open < 0 || close < 0) {
+					texts.add(template.substring(start));
+					kinds.add(TEXT);
+					break;
+				}
+				if (open > start) {
+					texts.add(template.substring(start, open));
+					kinds.add(TEXT);
+				}
+				String placeholder = template.substring(open, close + 1);
+				texts.add(null);
+				kinds.add(placeholder.equals("{self}") ? SELF : placeholder.equals("{peer}") ? PEER : ARGUMENT);
+				start = close + 1;
+			}
+			this.texts = texts.toArray(new String[0]);
+			this.kinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	private final LoggingAdapter log;
+	private final String self;
+	private final StringBuilder builder = new StringBuilder(128);
+	private final long[] arguments = new long[5];
+
+	/**
+	 * @param log The logger of the process
+	 * @param self The name of the process
+	*/
+	public EventLog(LoggingAdapter log, String self) {
+		this.log = log;
+		this.self = self;
+	}
+
+	public boolean isEnabled(Event e) {
+		return e.info ? log.isInfoEnabled() : log.isDebugEnabled();
+	}
+
+	public void log(Event e) {
+		if (isEnabled(e)) emit(e, null);
+	}
+
+	public void log(Event e, long a) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		emit(e, null);
+	}
+
+	public void log(Event e, long a, long b) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		emit(e, null);
+	}
+
+	public void log(Event e, long a, long b, long c) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		arguments[2] = c;
+		emit(e, null);
+	}
+
+	public void log(Event e, long a, long b, long c, long d) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		arguments[2] = c;
+		arguments[3] = d;
+		emit(e, null);
+	}
+
+	public void log(Event e, long a, long b, long c, long d, long f) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		arguments[2] = c;
+		arguments[3] = d;
+		arguments[4] = f;
+		emit(e, null);
+	}
+
+	public void log(Event e, ActorRef peer) {
+		if (isEnabled(e)) emit(e, peer);
+	}
+
+	public void log(Event e, ActorRef peer, long a) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		emit(e, peer);
+	}
+
+	public void log(Event e, ActorRef peer, long a, long b) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		emit(e, peer);
+	}
+
+	public void log(Event e, ActorRef peer, long a, long b, long c) {
+		if (!isEnabled(e)) return;
+		arguments[0] = a;
+		arguments[1] = b;
+		arguments[2] = c;
+		emit(e, peer);
+	}
+
+	private void emit(Event e, ActorRef peer) {
+		builder.setLength(0);
+		int argument = 0;
+		for (int i = 0; i < e.kinds.length; i++) {
+			switch (e.kinds[i]) {
+				case Event.TEXT:
+					builder.append(e.texts[i]);
+					break;
+				case Event.SELF:
+					builder.append(self);
+					break;
+				case Event.PEER:
+					builder.append(peer == null ? "deadLetters" : peer.path().name());
+					break;
+				default:
+					builder.append(arguments[argument++]);
+					break;
+			}
+		}
+		if (e.info) log.info(builder.toString());
+		else log.debug(builder.toString());
+	}
+}
@@ -6,15 +6,22 @@ package demo;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.actor.Props;
 import akka.event.Logging;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import scala.concurrent.duration.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 
 /**
@@ -24,57 +31,69 @@ import java.util.ArrayList;
 public class Main {
 
 	static int N; // Number of actors
-	static int LEADER_ELECTION_TIMEOUT;// Timeout for leader election, t_le
+	static int LEADER_ELECTION_TIMEOUT;// Timeout for leader election, t_le: a process silent for longer is suspected
+	static int HEARTBEAT_INTERVAL = 10; // Period of the heartbeats of the leader and of the suspicion checks, in ms
+	static String FAILURE_DETECTOR = "fixed"; // Suspicion of the leader: fixed (after LEADER_ELECTION_TIMEOUT) or phi (phi accrual, with backoff from the round-trip times)
+	static double PHI_THRESHOLD = 8; // Phi above which a silent process is suspected
 	static int CRASH_NUMBER; // Number of actors to crash
 	static double CRASH_PROBABILITY; // Probability of crashing, alpha
 	static int BOUND_OF_PROPOSED_NUMBER; // Bound of the proposed number (exclusive)
 	static int ABORT_TIMEOUT; // Timeout for abort
-	final static String FLAG = "DEBUG";
+	static int NUMBER_OF_COMMANDS; // Number of client commands to replicate, 0 for single-decree Paxos
+	static int PIPELINE_DEPTH = 1; // Number of slots the leader may impose before their ACK quorum
+	static int BATCH_SIZE = 1; // Maximum number of commands decided in one slot
+	static int BATCH_TIMEOUT = 0; // Time a partial batch may wait for more commands, in ms
+	static String DURABILITY = "none"; // Persistence of the acceptor state: none, fsync, group or mmap
+	static boolean MMAP_FORCE = true; // Forces the mapped register to the disk before replying
+	static int RECOVERY_DOWNTIME = 0; // Time before a crashed process restarts, in ms, 0 for crash-stop
+	static int SNAPSHOT_INTERVAL = 0; // Number of applied slots between two snapshots, 0 to keep the whole log
+	static String CLUSTER = "none"; // File listing the JVMs hosting the processes, none to run them all in this JVM
+	static String TRANSPORT = "akka"; // Transport between the JVMs of the cluster: akka (remoting) or nio
+	static String LOG_LEVEL = "DEBUG"; // Level of the event stream: DEBUG, INFO or OFF
+	static boolean TRACE = true; // Records the protocol events in traces/
+	static int TERMINATION_DEADLINE = 10000; // Time the driver waits for every process to decide or crash, in ms
 
+	/**
+	 * @param args Index of this JVM in the CLUSTER file, 0 (the driver) by default
+	*/
     public static void main (String[] args) {
 
-		String paramFile = "param.txt";
-		try (BufferedReader reader = new BufferedReader(new FileReader(paramFile))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				String[] parts = line.split("=");
-				if (parts.length == 2) {
-					switch(parts[0].trim()) {
-						case "N":
-							N = Integer.parseInt(parts[1].trim());
-							break;
-						case "LEADER_ELECTION_TIMEOUT":
-							LEADER_ELECTION_TIMEOUT = Integer.parseInt(parts[1].trim());
-							break;
-						case "CRASH_NUMBER":
-							CRASH_NUMBER = Integer.parseInt(parts[1].trim());
-							break;
-						case "CRASH_PROBABILITY":
-							CRASH_PROBABILITY = Double.parseDouble(parts[1].trim());
-							break;
-						case "BOUND_OF_PROPOSED_NUMBER":
-							BOUND_OF_PROPOSED_NUMBER = Integer.parseInt(parts[1].trim());
-							break;
-						case "ABORT_TIMEOUT":
-							ABORT_TIMEOUT = Integer.parseInt(parts[1].trim());
-							break;
-					}
-				}
+		readParameters("param.txt");
+
+		if ("mmap".equals(DURABILITY) && NUMBER_OF_COMMANDS > 0) {
+			System.err.println("DURABILITY = mmap only persists the single-decree register, use fsync or group with NUMBER_OF_COMMANDS > 0");
+			return;
+		}
+		if (RECOVERY_DOWNTIME > 0 && "none".equals(DURABILITY)) {
+			System.err.println("RECOVERY_DOWNTIME > 0 needs DURABILITY = fsync, group or mmap to reload the acceptor state");
+			return;
+		}
+
+		final int node = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+		List<String> nodes = null;
+		if (!"none".equals(CLUSTER)) {
+			try {
+				nodes = Cluster.read(Paths.get(CLUSTER));
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
 		        
-        final ActorSystem system = ActorSystem.create("system");
+        final ActorSystem system = nodes == null ? ActorSystem.create(Cluster.SYSTEM) : ActorSystem.create(Cluster.SYSTEM, Cluster.config(nodes.get(node)));
 		final ActorRef[] actors = new ActorRef[N];
+		final CompletableFuture<Void> done = new CompletableFuture<>();
 
-		switch(FLAG) {
+		switch(LOG_LEVEL) {
 			case "DEBUG":
 				system.getEventStream().setLogLevel(Logging.DebugLevel());
 				break;
 			case "INFO":
 				system.getEventStream().setLogLevel(Logging.InfoLevel());
 				break;
+			case "OFF":
+				system.getEventStream().setLogLevel(Logging.ErrorLevel());
+				break;
 			default:
 				system.getEventStream().setLogLevel(Logging.InfoLevel());
 				break;
@@ -82,15 +101,121 @@ public class Main {
 
 
 		for (int i = 1; i <= N; i++) {
-			actors[i-1] = system.actorOf(Process.createActor(i), "Actor" + i);
+			if (nodes == null || Cluster.nodeOf(i, nodes.size()) == node) {
+				actors[i-1] = system.actorOf(Process.createActor(i), "Actor" + i);
+			}
+		}
+
+		// With a cluster, every node resolves the processes of the other nodes from the cluster file,
+		// or stands them in with proxies writing to the sockets of the NIO transport
+		NioTransport transport = null;
+		try {
+			if (nodes != null && "nio".equals(TRANSPORT)) {
+				transport = new NioTransport(node, Cluster.transportAddresses(nodes));
+				for (int i = 1; i <= N; i++) {
+					int k = Cluster.nodeOf(i, nodes.size());
+					if (actors[i-1] == null) actors[i-1] = system.actorOf(transport.proxy(k, i), "Proxy" + i);
+				}
+				transport.setActors(actors);
+				transport.start(Cluster.DISCOVERY_DEADLINE);
+			}
+			for (int i = 1; nodes != null && i <= N; i++) {
+				if (actors[i-1] == null) actors[i-1] = Cluster.resolve(system, nodes.get(Cluster.nodeOf(i, nodes.size())), "Actor" + i);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			if (transport != null) transport.close();
+			system.terminate();
+			return;
+		}
+
+		// The processes of every node report to the coordinator of the driver
+		ActorRef coordinator;
+		try {
+			coordinator = node == 0 ? system.actorOf(Coordinator.createActor(N, done), Coordinator.NAME) : Cluster.resolve(system, nodes.get(0), Coordinator.NAME);
+		} catch (Exception e) {
+			e.printStackTrace();
+			if (transport != null) transport.close();
+			system.terminate();
+			return;
 		}
 
 		ActorinfoMessage actorinfoMessage = new ActorinfoMessage(actors);
+		actorinfoMessage.coordinator = coordinator;
+		Metrics metrics = new Metrics();
+		actorinfoMessage.metrics = metrics;
+		Trace trace = null;
+		if (TRACE) {
+			try {
+				trace = new Trace(Paths.get("traces", nodes == null ? "trace.bin" : "trace" + node + ".bin"));
+				actorinfoMessage.trace = trace;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 
-		for (int i = 0; i < N; i++) {
-			actors[i].tell(actorinfoMessage, ActorRef.noSender());
+		for (int i = 1; i <= N; i++) {
+			if (nodes == null || Cluster.nodeOf(i, nodes.size()) == node) {
+				actors[i-1].tell(actorinfoMessage, ActorRef.noSender());
+			}
 		}
 
+		if (nodes != null) {
+			// The "ready" actor is created after the ACTORINFO messages, so the driver launches no process before it knows its peers
+			system.actorOf(Props.empty(), "ready");
+			try {
+				if (node > 0) {
+					Cluster.awaitTermination(system, Cluster.resolve(system, nodes.get(0), "ready"));
+					closeTrace(system, trace);
+					closeTransport(system, transport, node);
+					terminate(system, metrics);
+					return;
+				}
+				for (int k = 1; k < nodes.size(); k++) {
+					Cluster.resolve(system, nodes.get(k), "ready");
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				if (transport != null) transport.close();
+				system.terminate();
+				return;
+			}
+		}
+
+		long allocatedBefore = allocatedBytes();
+		long launchTime = System.currentTimeMillis();
+		metrics.launched(System.nanoTime());
+		launch(system, actors);
+
+        try {
+			awaitDone(system, done, TERMINATION_DEADLINE);
+			metrics.ended(System.nanoTime());
+			long allocated = allocatedBytes() - allocatedBefore;
+			long elapsed = System.currentTimeMillis() - launchTime;
+			system.log().info("/!\\ allocated [" + allocated / 1024 + "KB] in [" + elapsed + "ms] (" + allocated / 1024 * 1000 / Math.max(1, elapsed) + " KB/s, log level [" + LOG_LEVEL + "])");
+		} catch (InterruptedException E) {
+			E.printStackTrace();
+		} finally {
+			closeTrace(system, trace);
+			closeTransport(system, transport, node);
+			terminate(system, metrics);
+		}
+    }
+
+	/**
+	 * @brief Launches every process, tells CRASH_NUMBER of them to crash and sends the commands to every process,
+	 * the processes electing their leader themselves
+	 * @param actors The processes
+	*/
+	static void launch(ActorSystem system, ActorRef[] actors) {
+		launch(system, actors, CRASH_NUMBER, NUMBER_OF_COMMANDS);
+	}
+
+	/**
+	 * @brief Launches the processes of a run whose parameters may differ from the static ones
+	*/
+	static void launch(ActorSystem system, ActorRef[] actors, int crashNumber, int numberOfCommands) {
+		int N = actors.length;
 		LaunchMessage launchMessage = new LaunchMessage();
 		for (int i = 0; i < N; i++) {
 			actors[i].tell(launchMessage, ActorRef.noSender());
@@ -103,30 +228,168 @@ public class Main {
 		Collections.shuffle(crashList);
 
 		// Send CRASH messages to the actors in the crash list
-		for (int i = 0; i < CRASH_NUMBER; i++) {
+		for (int i = 0; i < crashNumber; i++) {
 			actors[crashList.get(i)].tell(new CrashMessage(), ActorRef.noSender());
 		}
 
-		// The list is shuffled, so we can just set the leader with the first actor not in the crash list
+		// In multi-Paxos mode, the client does not know the leader and sends its commands to every process,
+		// the leader imposes them and the others drop them once decided
+		for (int i = 0; i < numberOfCommands; i++) {
+			CommandMessage commandMessage = new CommandMessage(i);
+			for (int j = 0; j < N; j++) {
+				actors[j].tell(commandMessage, ActorRef.noSender());
+			}
+		}
+	}
 
-		// We now send HOLD message to every other process
-		for (int i = 0; i < N; i++) {
-			if (i != CRASH_NUMBER) {
-				system.scheduler().scheduleOnce(Duration.create(LEADER_ELECTION_TIMEOUT, TimeUnit.MILLISECONDS), actors[crashList.get(i)], new HoldMessage(), system.dispatcher(), null);
+	/**
+	 * @brief Reads the parameters of a file of KEY = value lines
+	 * @param paramFile The file, param.txt for a run
+	*/
+	static void readParameters(String paramFile) {
+		try (BufferedReader reader = new BufferedReader(new FileReader(paramFile))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.split("=");
+				if (parts.length == 2) {
+					setParameter(parts[0].trim(), parts[1].trim());
+				}
 			}
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
+	}
 
-        try {
-			waitBeforeTerminate();
-		} catch (InterruptedException E) {
-			E.printStackTrace();
-		} finally {
-			system.terminate();
+	/**
+	 * @brief Sets one parameter, unknown keys are ignored
+	*/
+	static void setParameter(String key, String value) {
+		switch(key) {
+			case "N":
+				N = Integer.parseInt(value);
+				break;
+			case "LEADER_ELECTION_TIMEOUT":
+				LEADER_ELECTION_TIMEOUT = Integer.parseInt(value);
+				break;
+			case "HEARTBEAT_INTERVAL":
+				HEARTBEAT_INTERVAL = Integer.parseInt(value);
+				break;
+			case "FAILURE_DETECTOR":
+				FAILURE_DETECTOR = value;
+				break;
+			case "PHI_THRESHOLD":
+				PHI_THRESHOLD = Double.parseDouble(value);
+				break;
+			case "CRASH_NUMBER":
+				CRASH_NUMBER = Integer.parseInt(value);
+				break;
+			case "CRASH_PROBABILITY":
+				CRASH_PROBABILITY = Double.parseDouble(value);
+				break;
+			case "BOUND_OF_PROPOSED_NUMBER":
+				BOUND_OF_PROPOSED_NUMBER = Integer.parseInt(value);
+				break;
+			case "ABORT_TIMEOUT":
+				ABORT_TIMEOUT = Integer.parseInt(value);
+				break;
+			case "NUMBER_OF_COMMANDS":
+				NUMBER_OF_COMMANDS = Integer.parseInt(value);
+				break;
+			case "PIPELINE_DEPTH":
+				PIPELINE_DEPTH = Integer.parseInt(value);
+				break;
+			case "BATCH_SIZE":
+				BATCH_SIZE = Integer.parseInt(value);
+				break;
+			case "BATCH_TIMEOUT":
+				BATCH_TIMEOUT = Integer.parseInt(value);
+				break;
+			case "DURABILITY":
+				DURABILITY = value;
+				break;
+			case "MMAP_FORCE":
+				MMAP_FORCE = Integer.parseInt(value) != 0;
+				break;
+			case "RECOVERY_DOWNTIME":
+				RECOVERY_DOWNTIME = Integer.parseInt(value);
+				break;
+			case "SNAPSHOT_INTERVAL":
+				SNAPSHOT_INTERVAL = Integer.parseInt(value);
+				break;
+			case "CLUSTER":
+				CLUSTER = value;
+				break;
+			case "TRANSPORT":
+				TRANSPORT = value;
+				break;
+			case "LOG_LEVEL":
+				LOG_LEVEL = value;
+				break;
+			case "TRACE":
+				TRACE = Integer.parseInt(value) != 0;
+				break;
+			case "TERMINATION_DEADLINE":
+				TERMINATION_DEADLINE = Integer.parseInt(value);
+				break;
 		}
-    }
+	}
 
-    public static void waitBeforeTerminate() throws InterruptedException {
-		Thread.sleep(10000);
+	/**
+	 * @brief Stops the processes, which merge their latency histograms when they stop, and prints the percentiles of every phase
+	*/
+	private static void terminate(ActorSystem system, Metrics metrics) {
+		system.terminate();
+		system.getWhenTerminated().toCompletableFuture().join();
+		System.out.print(metrics.report());
+	}
+
+	/**
+	 * @brief Writes the last trace records
+	*/
+	private static void closeTrace(ActorSystem system, Trace trace) {
+		if (trace == null) return;
+		try {
+			long dropped = trace.close();
+			if (dropped > 0) system.log().warning("[" + dropped + "] trace records dropped, the ring buffers were full");
+		} catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @brief Logs how many messages the NIO transport coalesced per socket write and closes it
+	*/
+	private static void closeTransport(ActorSystem system, NioTransport transport, int node) {
+		if (transport == null) return;
+		system.log().info("NIO transport of node [" + node + "]: [" + String.format("%.2f", transport.framesPerWrite()) + "] frames per write");
+		transport.close();
+	}
+
+	/**
+	 * @return The bytes allocated so far by the live threads of the JVM
+	*/
+	private static long allocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long total = 0;
+		for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (allocated > 0) total += allocated;
+		}
+		return total;
+	}
+
+	/**
+	 * @brief Waits until the coordinator reports every process decided or crashed, or until the deadline
+	 * @param done Completed by the coordinator
+	 * @param deadline The maximum wait, in ms
+	*/
+	static void awaitDone(ActorSystem system, CompletableFuture<Void> done, int deadline) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		try {
+			done.get(deadline, TimeUnit.MILLISECONDS);
+			system.log().info("/!\\ run terminated after [" + (System.currentTimeMillis() - start) + "ms]");
+		} catch (TimeoutException | ExecutionException e) {
+			system.log().warning("/!\\ run stopped at the deadline of [" + deadline + "ms], some processes neither decided nor crashed");
+		}
 	}
 
 	/**
@@ -139,6 +402,21 @@ public class Main {
 		public double crashProbability;
 		public int boundOfProposedNumber;
 		public int abortTimeout;
+		public int leaderElectionTimeout;
+		public int heartbeatInterval;
+		public String failureDetector;
+		public double phiThreshold;
+		public int numberOfCommands;
+		public int pipelineDepth;
+		public int batchSize;
+		public int batchTimeout;
+		public String durability;
+		public boolean mmapForce;
+		public int recoveryDowntime;
+		public int snapshotInterval;
+		public Trace trace; // Trace of this JVM, null when TRACE = 0
+		public Metrics metrics; // Latency histograms of this JVM
+		public ActorRef coordinator; // Termination detection of the run, null to report to nobody
 
 		public ActorinfoMessage(ActorRef[] actors) {
 			this.actors = actors;
@@ -146,6 +424,18 @@ public class Main {
 			this.crashProbability = CRASH_PROBABILITY;
 			this.boundOfProposedNumber = BOUND_OF_PROPOSED_NUMBER;
 			this.abortTimeout = ABORT_TIMEOUT;
+			this.leaderElectionTimeout = LEADER_ELECTION_TIMEOUT;
+			this.heartbeatInterval = HEARTBEAT_INTERVAL;
+			this.failureDetector = FAILURE_DETECTOR;
+			this.phiThreshold = PHI_THRESHOLD;
+			this.numberOfCommands = NUMBER_OF_COMMANDS;
+			this.pipelineDepth = PIPELINE_DEPTH;
+			this.batchSize = BATCH_SIZE;
+			this.batchTimeout = BATCH_TIMEOUT;
+			this.durability = DURABILITY;
+			this.mmapForce = MMAP_FORCE;
+			this.recoveryDowntime = RECOVERY_DOWNTIME;
+			this.snapshotInterval = SNAPSHOT_INTERVAL;
 		}
 	}
 
@@ -153,7 +443,7 @@ public class Main {
 	 * @class LaunchMessage
 	 * @brief Message to launch the actors
 	*/
-	static public class LaunchMessage {
+	static public class LaunchMessage implements Serializable {
 		public LaunchMessage() {
 		}
 	}
@@ -162,61 +452,213 @@ public class Main {
 	 * @class CrashMessage
 	 * @brief Message to tell the actors to crash at certain point
 	*/
-	static public class CrashMessage {
+	static public class CrashMessage implements Serializable {
 		public CrashMessage() {
 		}
 	}
 
-	static public class HoldMessage {
-		public HoldMessage() {
+	/**
+	 * @class CommandMessage
+	 * @brief Message carrying a client command to replicate in multi-Paxos mode
+	*/
+	static public class CommandMessage implements Serializable {
+		public int command;
+		public CommandMessage(int command) {
+			this.command = command;
+		}
+	}
+
+	/**
+	 * @class BatchTimeoutMessage
+	 * @brief Message telling the leader that its partial batch waited BATCH_TIMEOUT
+	*/
+	static public class BatchTimeoutMessage {
+		public BatchTimeoutMessage() {
+		}
+	}
+
+	/**
+	 * @class HeartbeatMessage
+	 * @brief Message a process trusting itself as the leader sends to every other process every HEARTBEAT_INTERVAL
+	*/
+	static public class HeartbeatMessage implements Serializable {
+		public int id;
+		public HeartbeatMessage(int id) {
+			this.id = id;
+		}
+	}
+
+	/**
+	 * @class TickMessage
+	 * @brief Message a process sends to itself every HEARTBEAT_INTERVAL to suspect the silent processes and send its heartbeats
+	*/
+	static public class TickMessage {
+		public TickMessage() {
+		}
+	}
+
+	/**
+	 * @class RetryMessage
+	 * @brief Message a process sends to itself to re-propose once its backoff after an ABORT is over
+	*/
+	static public class RetryMessage {
+		public long ballot; // The ballot aborted, the retry is dropped if the process proposed again since
+		public RetryMessage(long ballot) {
+			this.ballot = ballot;
+		}
+	}
+
+	/**
+	 * @class SyncMessage
+	 * @brief Message a process sends to itself to fsync its write-ahead log once for every reply deferred before it
+	*/
+	static public class SyncMessage {
+		public SyncMessage() {
 		}
 	}
 
-	static public class ReadMessage {
-		public int ballot;
-		public ReadMessage(int ballot) {
+	/**
+	 * @class RestartMessage
+	 * @brief Message restarting a crashed process after RECOVERY_DOWNTIME
+	*/
+	static public class RestartMessage {
+		public RestartMessage() {
+		}
+	}
+
+	/**
+	 * @class DoneMessage
+	 * @brief Message from a process to the coordinator once it decided, or crashed in the crash-stop model
+	*/
+	static public class DoneMessage implements Serializable {
+		public int id;
+		public boolean crashed;
+		public DoneMessage(int id, boolean crashed) {
+			this.id = id;
+			this.crashed = crashed;
+		}
+	}
+
+	/**
+	 * @class CatchupMessage
+	 * @brief Message from a restarted process asking for the values decided from a slot
+	*/
+	static public class CatchupMessage implements Serializable {
+		public int slot;
+		public CatchupMessage(int slot) {
+			this.slot = slot;
+		}
+	}
+
+	/**
+	 * @class CatchupReplyMessage
+	 * @brief Message carrying the batches decided in consecutive slots, the single-decree value is batches[0][0]
+	*/
+	static public class CatchupReplyMessage implements Serializable {
+		public int slot;
+		public int[][] batches;
+		public CatchupReplyMessage(int slot, int[][] batches) {
+			this.slot = slot;
+			this.batches = batches;
+		}
+	}
+
+	/**
+	 * @class SnapshotMessage
+	 * @brief Message transferring a snapshot to a process lagging behind the compacted part of the log
+	*/
+	static public class SnapshotMessage implements Serializable {
+		public int slot;
+		public long[] applied;
+		public int appliedCount;
+		public long digest;
+		public SnapshotMessage(int slot, long[] applied, int appliedCount, long digest) {
+			this.slot = slot;
+			this.applied = applied;
+			this.appliedCount = appliedCount;
+			this.digest = digest;
+		}
+	}
+
+	static public class ReadMessage implements Serializable {
+		public long ballot;
+		public int slot; // First slot the proposer has not learned, multi-Paxos only
+		public ReadMessage(long ballot) {
+			this.ballot = ballot;
+		}
+		public ReadMessage(long ballot, int slot) {
 			this.ballot = ballot;
+			this.slot = slot;
 		}
 	}
 
-	static public class AbortMessage {
-		public int ballot;
-		public AbortMessage(int ballot) {
+	static public class AbortMessage implements Serializable {
+		public long ballot;
+		public long highestBallot; // max(readBallot, imposeBallot) of the acceptor, the next ballot of the proposer goes past it
+		public AbortMessage(long ballot, long highestBallot) {
 			this.ballot = ballot;
+			this.highestBallot = highestBallot;
 		}
 	}
 
-	static public class GatherMessage {
-		public int ballot;
-		public int imposeBallot;
+	static public class GatherMessage implements Serializable {
+		public long ballot;
+		public long imposeBallot;
 		public int estimate;
-		public GatherMessage(int ballot, int imposeBallot, int estimate) {
+		public int slot; // Multi-Paxos only, slot of the first entry of the arrays below
+		public long[] imposeBallots;
+		public int[][] estimates;
+		public GatherMessage(long ballot, long imposeBallot, int estimate) {
 			this.ballot = ballot;
 			this.imposeBallot = imposeBallot;
 			this.estimate = estimate;
 		}
+		public GatherMessage(long ballot, int slot, long[] imposeBallots, int[][] estimates) {
+			this.ballot = ballot;
+			this.slot = slot;
+			this.imposeBallots = imposeBallots;
+			this.estimates = estimates;
+		}
 	}
 	
-	static public class ImposeMessage {
-		public int ballot;
+	static public class ImposeMessage implements Serializable {
+		public long ballot;
 		public int proposal;
-		public ImposeMessage(int ballot, int proposal) {
+		public int slot;
+		public int[] batch; // Multi-Paxos only, commands decided together in the slot
+		public ImposeMessage(long ballot, int proposal) {
 			this.ballot = ballot;
 			this.proposal = proposal;
 		}
+		public ImposeMessage(long ballot, int slot, int[] batch) {
+			this.ballot = ballot;
+			this.slot = slot;
+			this.batch = batch;
+		}
 	}
 
-	static public class ACKMessage {
-		public int ballot;
-		public ACKMessage(int ballot) {
+	static public class ACKMessage implements Serializable {
+		public long ballot;
+		public int slot;
+		public ACKMessage(long ballot) {
 			this.ballot = ballot;
 		}
+		public ACKMessage(long ballot, int slot) {
+			this.ballot = ballot;
+			this.slot = slot;
+		}
 	}
 
-	static public class DecideMessage {
+	static public class DecideMessage implements Serializable {
 		public int proposal;
+		public int slot;
+		public int[] batch;
 		public DecideMessage(int proposal) {
 			this.proposal = proposal;
 		}
+		public DecideMessage(int slot, int[] batch) {
+			this.slot = slot;
+			this.batch = batch;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/**
+ * @file MappedAcceptorState.java
+ * @brief File containing the memory-mapped acceptor register
+*/
+package demo;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @class MappedAcceptorState
+ * @brief readBallot, imposeBallot and estimate of the single-decree register kept in a memory-mapped file
+*/
+public class MappedAcceptorState implements AcceptorStore {
+	private static final int READ_BALLOT = 0, IMPOSE_BALLOT = 8, ESTIMATE = 16, SIZE = 20;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer region;
+	private final boolean force; // Calls force() on sync, otherwise the page cache is trusted
+	private long syncs = 0;
+
+	/**
+	 * @brief Maps the register file
+	 * @param path The file of the register
+	 * @param force Forces the region to the disk on every sync if true
+	 * @param recover Keeps the register of a previous run if true, clears it otherwise
+	*/
+	public MappedAcceptorState(Path path, boolean force, boolean recover) throws IOException {
+		Files.createDirectories(path.getParent());
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		region = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+		this.force = force;
+		if (!recover) {
+			for (int i = 0; i < SIZE; i += 4) region.putInt(i, 0);
+		}
+	}
+
+	@Override
+	public void saveRead(long ballot) {
+		region.putLong(READ_BALLOT, ballot);
+	}
+
+	@Override
+	public void saveImpose(long ballot, int estimate) {
+		region.putLong(IMPOSE_BALLOT, ballot);
+		region.putInt(ESTIMATE, estimate);
+	}
+
+	@Override
+	public void sync() {
+		if (!force) return;
+		region.force();
+		syncs++;
+	}
+
+	@Override
+	public long[] load() {
+		return new long[] {region.getLong(READ_BALLOT), region.getLong(IMPOSE_BALLOT), region.getInt(ESTIMATE)};
+	}
+
+	@Override
+	public long getSyncs() {
+		return syncs;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * @file Metrics.java
+ * @brief File containing the latency histograms of the protocol phases
+*/
+package demo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * @class Metrics
+ * @brief Latency histograms of a JVM, each process records into its own histograms and merges them when it stops
+*/
+public class Metrics {
+	static final int PROPOSE_GATHER = 0; // READ sent to GATHER quorum, per ballot
+	static final int IMPOSE_ACK = 1; // IMPOSE sent to ACK quorum, per ballot or slot
+	static final int PROPOSE_DECIDE = 2; // First proposal to decision of the proposer, single-decree only
+	static final int DECIDE_PROPAGATION = 3; // ACK quorum at the decider to DECIDE received, per process and slot
+	static final String[] PHASES = {"propose to gather quorum", "impose to ack quorum", "propose to decide", "decide propagation"};
+	static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Histogram[] merged = histograms();
+	private final ConcurrentHashMap<Integer, Long> decideTimes = new ConcurrentHashMap<>();
+	private final CompletableFuture<Long> firstDecision = new CompletableFuture<>();
+	private volatile long launchTime = 0, endTime = Long.MAX_VALUE;
+	private final AtomicLong lastLeaderChange = new AtomicLong();
+	private final AtomicLong leaderChanges = new AtomicLong();
+	private final LongAdder heartbeats = new LongAdder();
+
+	/**
+	 * @return One empty histogram per phase, in ns
+	*/
+	public static Histogram[] histograms() {
+		Histogram[] histograms = new Histogram[PHASES.length];
+		for (int i = 0; i < histograms.length; i++) histograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+		return histograms;
+	}
+
+	/**
+	 * @brief Adds the histograms of a process
+	*/
+	public synchronized void merge(Histogram[] histograms) {
+		for (int i = 0; i < merged.length; i++) merged[i].add(histograms[i]);
+	}
+
+	/**
+	 * @brief Records when the first ACK quorum of a slot was reached, 0 for single-decree
+	 * @param slot The slot
+	 * @param time System.nanoTime() at the quorum
+	*/
+	public void decided(int slot, long time) {
+		if (decideTimes.putIfAbsent(slot, time) == null && slot == 0) firstDecision.complete(time);
+	}
+
+	/**
+	 * @brief Records the launch of the run, the origin of the time to a stable leader
+	 * @param time System.nanoTime() at the launch
+	*/
+	public void launched(long time) {
+		launchTime = time;
+	}
+
+	/**
+	 * @brief Records the end of the run, the leader changes and heartbeats of the processes being stopped are not counted
+	 * @param time System.nanoTime() at the end
+	*/
+	public void ended(long time) {
+		endTime = time;
+	}
+
+	/**
+	 * @brief Records that a process trusts another leader
+	 * @param time System.nanoTime() at the change
+	*/
+	public void leaderChanged(long time) {
+		if (time > endTime) return;
+		leaderChanges.incrementAndGet();
+		lastLeaderChange.accumulateAndGet(time, Math::max);
+	}
+
+	/**
+	 * @brief Counts the heartbeats sent by a process
+	*/
+	public void heartbeats(int count) {
+		if (System.nanoTime() > endTime) return;
+		heartbeats.add(count);
+	}
+
+	/**
+	 * @return Completed with the time of the first ACK quorum of slot 0 in this JVM
+	*/
+	public CompletableFuture<Long> firstDecision() {
+		return firstDecision;
+	}
+
+	/**
+	 * @return The time of the ACK quorum of the slot, 0 if it was reached in another JVM
+	*/
+	public long decideTime(int slot) {
+		Long time = decideTimes.get(slot);
+		return time == null ? 0 : time;
+	}
+
+	/**
+	 * @return The percentile table of every phase, in us
+	*/
+	public synchronized String report() {
+		StringBuilder table = new StringBuilder();
+		for (int i = 0; i < PHASES.length; i++) {
+			Histogram h = merged[i];
+			table.append("/!\\ latency [").append(PHASES[i]).append("] count [").append(h.getTotalCount()).append("]");
+			if (h.getTotalCount() > 0) {
+				table.append(" p50 [").append(h.getValueAtPercentile(50) / 1000).append("]us")
+					.append(" p90 [").append(h.getValueAtPercentile(90) / 1000).append("]us")
+					.append(" p99 [").append(h.getValueAtPercentile(99) / 1000).append("]us")
+					.append(" p999 [").append(h.getValueAtPercentile(99.9) / 1000).append("]us")
+					.append(" max [").append(h.getMaxValue() / 1000).append("]us");
+			}
+			table.append("\n");
+		}
+		if (launchTime > 0) {
+			long stable = lastLeaderChange.get() == 0 ? 0 : (lastLeaderChange.get() - launchTime) / 1000000;
+			table.append("/!\\ leader election: stable leader [").append(stable).append("]ms after launch, leader changes [").append(leaderChanges.get())
+				.append("] heartbeats [").append(heartbeats.sum()).append("]\n");
+		}
+		return table.toString();
+	}
+}
@@ -0,0 +1,330 @@
+/**
+ * @file NioTransport.java
+ * @brief File containing the non-blocking socket transport between the JVMs of a cluster
+*/
+package demo;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+
+/**
+ * @class NioTransport
+ * @brief One socket per peer JVM driven by a single event-loop thread
+ *
+ * Each frame is [length][to][from][PaxosCodec payload], to and from being process ids (0 for no sender).
+ * Every message queued for a peer during one tick of the loop is encoded in the same direct buffer and written at once.
+ * Processes of other JVMs are represented locally by Proxy actors, so Process keeps using tell().
+*/
+public class NioTransport implements Runnable {
+	static final int BUFFER_SIZE = 64 * 1024;
+	static final int HEADER = 12;
+
+	private final int node;
+	private final List<InetSocketAddress> addresses;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final Peer[] peers;
+	private final AtomicBoolean wakeup = new AtomicBoolean(false);
+	private volatile boolean running = true;
+	private ActorRef[] actors; // Local processes and proxies, indexed by id - 1
+	private Thread thread;
+	private volatile long writes = 0, frames = 0; // Only the event loop increments them, framesPerWrite() reads them from another thread
+
+	/**
+	 * @class Peer
+	 * @brief Connection to another JVM and the messages waiting for the next tick
+	*/
+	private static class Peer {
+		final ConcurrentLinkedQueue<Envelope> queue = new ConcurrentLinkedQueue<>();
+		SocketChannel channel;
+		SelectionKey key;
+		ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		boolean blocked = false; // Part of the output buffer is waiting for the socket
+	}
+
+	private static class Envelope {
+		final int to, from;
+		final Object message;
+		Envelope(int to, int from, Object message) {
+			this.to = to;
+			this.from = from;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * @brief Listens on the address of this node
+	 * @param node The index of this JVM
+	 * @param addresses The transport address of every JVM
+	*/
+	public NioTransport(int node, List<InetSocketAddress> addresses) throws IOException {
+		this.node = node;
+		this.addresses = addresses;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(addresses.get(node));
+		peers = new Peer[addresses.size()];
+	}
+
+	/**
+	 * @brief Sets the actors receiving the incoming messages
+	 * @param actors Local processes and proxies of the remote ones, indexed by id - 1
+	*/
+	public void setActors(ActorRef[] actors) {
+		this.actors = actors;
+	}
+
+	/**
+	 * @brief Opens one connection per pair of JVMs, this node connects to the lower indexes and accepts the higher ones, then starts the event loop
+	 * @param deadline Time to wait for the other JVMs, in ms
+	*/
+	public void start(long deadline) throws IOException, InterruptedException {
+		long end = System.currentTimeMillis() + deadline;
+		for (int k = 0; k < node; k++) {
+			SocketChannel channel = null;
+			while (channel == null) {
+				try {
+					channel = SocketChannel.open(addresses.get(k));
+				} catch (ConnectException e) {
+					if (System.currentTimeMillis() > end) throw e;
+					Thread.sleep(100);
+				}
+			}
+			ByteBuffer handshake = ByteBuffer.allocate(4).putInt(0, node);
+			while (handshake.hasRemaining()) channel.write(handshake);
+			open(k, channel);
+		}
+		for (int accepted = node + 1; accepted < peers.length; accepted++) {
+			SocketChannel channel = server.accept();
+			ByteBuffer handshake = ByteBuffer.allocate(4);
+			while (handshake.hasRemaining()) {
+				if (channel.read(handshake) < 0) throw new IOException("Connection closed during handshake");
+			}
+			open(handshake.getInt(0), channel);
+		}
+		thread = new Thread(this, "nio-transport-" + node);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void open(int k, SocketChannel channel) throws IOException {
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.configureBlocking(false);
+		Peer peer = new Peer();
+		peer.channel = channel;
+		peer.key = channel.register(selector, SelectionKey.OP_READ, k);
+		peers[k] = peer;
+	}
+
+	/**
+	 * @brief Queues a message for the next tick of the event loop, called by the proxies
+	 * @param k The JVM hosting the receiver
+	 * @param to The id of the receiver
+	 * @param from The id of the sender, 0 for no sender
+	*/
+	public void send(int k, int to, int from, Object message) {
+		peers[k].queue.offer(new Envelope(to, from, message));
+		if (wakeup.compareAndSet(false, true)) selector.wakeup();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				selector.select();
+				wakeup.set(false);
+				for (SelectionKey key : selector.selectedKeys()) {
+					Peer peer = peers[(Integer) key.attachment()];
+					if (key.isValid() && key.isReadable()) read(peer);
+					if (key.isValid() && key.isWritable()) {
+						peer.blocked = false;
+						key.interestOps(SelectionKey.OP_READ);
+					}
+				}
+				selector.selectedKeys().clear();
+				for (Peer peer : peers) {
+					if (peer != null && !peer.blocked) flush(peer);
+				}
+			}
+		} catch (IOException e) {
+			if (running) e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @brief Encodes every queued message of the peer and writes them with as few writes as the buffer allows
+	 *
+	 * A message the codec cannot encode is dropped, so that it does not stop the event loop and the traffic of every process.
+	*/
+	private void flush(Peer peer) throws IOException {
+		ByteBuffer output = peer.output;
+		Envelope envelope;
+		while ((envelope = peer.queue.peek()) != null) {
+			int size;
+			try {
+				size = HEADER + PaxosCodec.sizeOf(envelope.message);
+			} catch (RuntimeException e) {
+				drop(peer.queue.poll(), e);
+				continue;
+			}
+			if (output.remaining() < size) {
+				if (output.position() > 0 && !write(peer)) return;
+				if (output.capacity() < size) {
+					ByteBuffer larger = ByteBuffer.allocateDirect(size);
+					output.flip();
+					larger.put(output);
+					peer.output = output = larger;
+				}
+				if (output.remaining() < size) return;
+			}
+			peer.queue.poll();
+			int start = output.position();
+			try {
+				output.putInt(size - 4).putInt(envelope.to).putInt(envelope.from);
+				PaxosCodec.encode(envelope.message, output);
+				frames++;
+			} catch (RuntimeException e) {
+				// The frames before it are whole, the partial one is discarded
+				output.position(start);
+				drop(envelope, e);
+			}
+		}
+		if (output.position() > 0) write(peer);
+	}
+
+	private void drop(Envelope envelope, RuntimeException e) {
+		System.err.println("[nio-transport-" + node + "] dropped a " + envelope.message.getClass().getName() + " to [" + envelope.to + "]: " + e);
+	}
+
+	/**
+	 * @return false if the socket could not take the whole buffer, the rest is written once it is writable
+	*/
+	private boolean write(Peer peer) throws IOException {
+		ByteBuffer output = peer.output;
+		output.flip();
+		peer.channel.write(output);
+		writes++;
+		boolean done = !output.hasRemaining();
+		output.compact();
+		if (!done) {
+			peer.blocked = true;
+			peer.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+		return done;
+	}
+
+	/**
+	 * @brief Reads the available bytes and delivers every complete frame to its receiver
+	 *
+	 * A frame that does not decode is dropped and the next one is read from its length, a length that cannot be a frame closes the connection.
+	*/
+	private void read(Peer peer) throws IOException {
+		ByteBuffer input = peer.input;
+		if (peer.channel.read(input) < 0) {
+			peer.key.cancel();
+			peer.channel.close();
+			return;
+		}
+		input.flip();
+		while (input.remaining() >= 4) {
+			int length = input.getInt(input.position());
+			if (length < HEADER - 4) {
+				System.err.println("[nio-transport-" + node + "] closed a connection after a frame of length [" + length + "]");
+				peer.key.cancel();
+				peer.channel.close();
+				return;
+			}
+			if (input.remaining() < 4 + length) {
+				if (input.capacity() < 4 + length) {
+					ByteBuffer larger = ByteBuffer.allocateDirect(4 + length);
+					larger.put(input);
+					peer.input = larger;
+					return;
+				}
+				break;
+			}
+			int end = input.position() + 4 + length, limit = input.limit();
+			input.getInt();
+			int to = input.getInt();
+			int from = input.getInt();
+			// The decoder cannot read past the frame, whatever its content
+			input.limit(end);
+			try {
+				Object message = PaxosCodec.decode(input);
+				actors[to - 1].tell(message, from == 0 ? ActorRef.noSender() : actors[from - 1]);
+			} catch (RuntimeException e) {
+				System.err.println("[nio-transport-" + node + "] dropped a frame to [" + to + "] from [" + from + "]: " + e);
+			}
+			input.limit(limit).position(end);
+		}
+		input.compact();
+	}
+
+	/**
+	 * @return The number of frames sent per socket write
+	*/
+	public double framesPerWrite() {
+		return writes == 0 ? 0 : (double) frames / writes;
+	}
+
+	public void close() {
+		running = false;
+		selector.wakeup();
+		try {
+			if (thread != null) thread.join(1000);
+			for (Peer peer : peers) {
+				if (peer != null) peer.channel.close();
+			}
+			server.close();
+			selector.close();
+		} catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @brief Props of the local stand-in of a process hosted by another JVM
+	 * @param k The JVM hosting the process
+	 * @param id The id of the process
+	*/
+	public Props proxy(int k, int id) {
+		return Props.create(Proxy.class, () -> new Proxy(this, k, id));
+	}
+
+	/**
+	 * @class Proxy
+	 * @brief Forwards every message to the process it stands for, with the id of its sender
+	*/
+	static class Proxy extends AbstractActor {
+		private final NioTransport transport;
+		private final int node, id;
+
+		Proxy(NioTransport transport, int node, int id) {
+			this.transport = transport;
+			this.node = node;
+			this.id = id;
+		}
+
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+				.matchAny(m -> transport.send(node, id, Trace.idOf(getSender()), m))
+				.build();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * @file Omega.java
+ * @brief File containing the eventual leader detector of a process, independent of the actors
+*/
+package demo;
+
+/**
+ * @class Omega
+ * @brief Trusts the lowest id heard from recently enough, itself included
+ *
+ * Only a process trusting itself sends heartbeats, N - 1 messages per interval once the leader is stable:
+ * when the leader stops, the others suspect it, trust themselves until the heartbeats of the next lowest id arrive, and converge on it.
+ * The adapter (Process, Simulator) calls heard() on every heartbeat and tick() every heartbeat interval, and sends the heartbeats while isLeader().
+ *
+ * With a fixed timeout a process is suspected after t_le without heartbeat. With phi accrual, the inter-arrival times of the heartbeats of each process
+ * give a normal distribution (exponentially weighted mean and variance, starting from one heartbeat interval), and a process is suspected once
+ * phi = -log10(P(the next heartbeat comes later than now)) exceeds the threshold, one interval of pause being tolerated.
+*/
+public final class Omega {
+	static final double WEIGHT = 0.125; // Weight of a new inter-arrival time in the mean and the variance, as in the RTT estimator of TCP
+	static final double MIN_STDEV = 0.1; // Lower bound of the stdev, as a fraction of the interval, for the processes whose heartbeats are very regular
+
+	private final int id;
+	private final long timeout; // ns without heartbeat before suspecting a process, with a fixed timeout
+	private final double phiThreshold; // 0 for the fixed timeout
+	private final long interval; // ns, expected time between two heartbeats, the prior of the mean and the pause tolerated
+	private final long[] lastHeard; // ns, lastHeard[j] for process j, 0 if never heard
+	private final double[] mean, variance; // ns and ns^2, of the inter-arrival times of the heartbeats of each process
+	private int leader;
+
+	/**
+	 * @brief Leader detector with a fixed suspicion timeout
+	 * @param id The identifier of the process, from 1 to N
+	 * @param N The number of processes
+	 * @param timeout The suspicion timeout, in ns
+	*/
+	public Omega(int id, int N, long timeout) {
+		this(id, N, timeout, 0, 0);
+	}
+
+	/**
+	 * @param interval The heartbeat interval, in ns
+	 * @param phiThreshold The suspicion threshold of phi accrual, 0 to suspect after the fixed timeout
+	*/
+	public Omega(int id, int N, long timeout, long interval, double phiThreshold) {
+		this.id = id;
+		this.timeout = timeout;
+		this.interval = interval;
+		this.phiThreshold = phiThreshold;
+		lastHeard = new long[N + 1];
+		mean = new double[N + 1];
+		variance = new double[N + 1];
+		leader = id;
+	}
+
+	public int leader() {
+		return leader;
+	}
+
+	public boolean isLeader() {
+		return leader == id;
+	}
+
+	/**
+	 * @brief Records a heartbeat, a lower id than the leader becomes the leader at once
+	 * @param from The sender
+	 * @param now The time of the reception, in ns, positive
+	 * @return true if the leader changed
+	*/
+	public boolean heard(int from, long now) {
+		if (phiThreshold > 0) {
+			if (lastHeard[from] == 0 || suspected(from, now)) {
+				// First heartbeat, or first since a silence: the process restarts its stream of heartbeats
+				mean[from] = interval;
+				variance[from] = (interval / 4.0) * (interval / 4.0);
+			}
+			else {
+				double diff = (now - lastHeard[from]) - mean[from];
+				mean[from] += WEIGHT * diff;
+				variance[from] = (1 - WEIGHT) * (variance[from] + WEIGHT * diff * diff);
+			}
+		}
+		lastHeard[from] = now;
+		if (from < leader) {
+			leader = from;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @brief Suspects the processes silent for too long, and trusts the lowest id left
+	 * @param now The current time, in ns
+	 * @return true if the leader changed
+	*/
+	public boolean tick(long now) {
+		int trusted = id;
+		for (int j = 1; j < id; j++) {
+			if (lastHeard[j] > 0 && !suspected(j, now)) {
+				trusted = j;
+				break;
+			}
+		}
+		if (trusted == leader) return false;
+		leader = trusted;
+		return true;
+	}
+
+	private boolean suspected(int j, long now) {
+		long elapsed = now - lastHeard[j];
+		if (phiThreshold == 0) return elapsed > timeout;
+		return phi(elapsed - interval, mean[j], Math.max(Math.sqrt(variance[j]), interval * MIN_STDEV)) > phiThreshold;
+	}
+
+	/**
+	 * @return -log10 of the probability that a normal inter-arrival time exceeds elapsed, with the logistic approximation of the normal CDF
+	*/
+	static double phi(double elapsed, double mean, double stdev) {
+		double y = (elapsed - mean) / stdev;
+		double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+		return elapsed > mean ? -Math.log10(e / (1 + e)) : -Math.log10(1 - 1 / (1 + e));
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * @file Paxos.java
+ * @brief File containing the single-decree protocol as a state machine independent of the actors
+*/
+package demo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @class Paxos
+ * @brief Proposer, acceptor and learner of one process, and its crash-stop failure model
+ *
+ * Each input clears the outputs and appends what the process sends or learns, the adapter (Process, Simulator) reads them before the next input.
+ * Replies go to the sender of the input, the other messages to every process. GATHER and ACK count once per sender and only for the current ballot.
+*/
+public final class Paxos {
+	static final int MAX_BACKOFF_DOUBLINGS = 4; // The backoff window stops growing at 16 times the abort timeout
+
+	/**
+	 * @class Outputs
+	 * @brief Reusable buffer of the outputs of one input, one entry per message or event
+	*/
+	public static final class Outputs {
+		// Kinds of output
+		static final int READ = 1; // To every process: ballot, value: proposed value
+		static final int GATHER = 2; // To the sender: ballot, value: estimate, extra: imposeBallot
+		static final int IMPOSE = 3; // To every process: ballot, value: proposal, the GATHER quorum is reached
+		static final int ACK = 4; // To the sender: ballot, value: the accepted estimate
+		static final int ABORT = 5; // To the sender: ballot, extra: highest ballot of the acceptor
+		static final int DECIDE = 6; // To every process: ballot, value: decided value, the ACK quorum is reached
+		static final int REPROPOSE = 7; // ballot: ballot of the ABORT, extra: previous maxAbortBallot
+		static final int LEARNED = 8; // value: decided value, on every DECIDE received and catch-up
+		static final int CRASHED = 9;
+		static final int BACKOFF = 10; // ballot: ballot to re-propose, value: delay in us before retry(ballot)
+
+		private int size = 0;
+		private int[] kinds = new int[4], values = new int[4];
+		private long[] ballots = new long[4], extras = new long[4];
+
+		void clear() {
+			size = 0;
+		}
+
+		void add(int kind, long ballot, int value, long extra) {
+			if (size == kinds.length) {
+				kinds = Arrays.copyOf(kinds, size * 2);
+				ballots = Arrays.copyOf(ballots, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+				extras = Arrays.copyOf(extras, size * 2);
+			}
+			kinds[size] = kind;
+			ballots[size] = ballot;
+			values[size] = value;
+			extras[size] = extra;
+			size++;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int kind(int i) {
+			return kinds[i];
+		}
+
+		public long ballot(int i) {
+			return ballots[i];
+		}
+
+		public int value(int i) {
+			return values[i];
+		}
+
+		public long extra(int i) {
+			return extras[i];
+		}
+	}
+
+	public final Outputs out = new Outputs();
+
+	private final int id, N;
+	private final double crashProbability;
+	private int abortTimeout; // us, base of the backoff window, 0 to re-propose at once
+	private int aborts = 0; // ABORTs since the last GATHER quorum, the exponent of the backoff window
+	private final Random random;
+	private boolean shouldCrash = false, crashed = false, hold = false, decided = false;
+
+	private long ballot; // See Ballot for the layout
+	private final Acceptor acceptor = new Acceptor();
+	private int proposal, estimate;
+	private long maxAbortBallot = Long.MIN_VALUE;
+	private long highestSeenBallot = 0; // Highest ballot carried by an ABORT, the next ballot goes past it
+	private final Quorum gathers, acks;
+	private long maxStateBallot; // Highest imposeBallot among the GATHERs of the ballot
+	private int maxStateEstimate;
+	private int proposeResult = -2; // Decided value, -1 after an ABORT, -2 before
+
+	/**
+	 * @param id The identifier of the process, from 1 to N
+	 * @param N The number of processes, at most Ballot.MAX_ID
+	 * @param crashProbability The probability of crashing at each input once told to crash, alpha
+	 * @param random The source of the crash decisions and of the backoff delays
+	*/
+	public Paxos(int id, int N, double crashProbability, Random random) {
+		this(id, N, crashProbability, 0, random);
+	}
+
+	/**
+	 * @param abortTimeout The base of the backoff window after an ABORT, in us, 0 to re-propose at once
+	*/
+	public Paxos(int id, int N, double crashProbability, int abortTimeout, Random random) {
+		if (N > Ballot.MAX_ID) throw new IllegalArgumentException("at most " + Ballot.MAX_ID + " processes, " + N + " given");
+		this.id = id;
+		this.N = N;
+		this.crashProbability = crashProbability;
+		this.abortTimeout = abortTimeout;
+		this.random = random;
+		ballot = Ballot.of(0, id);
+		gathers = new Quorum(N);
+		acks = new Quorum(N);
+	}
+
+	public boolean isCrashed() {
+		return crashed;
+	}
+
+	public boolean isDecided() {
+		return decided;
+	}
+
+	public int getProposeResult() {
+		return proposeResult;
+	}
+
+	/**
+	 * @return The acceptor ballots, also used by the slots of multi-Paxos
+	*/
+	public Acceptor acceptor() {
+		return acceptor;
+	}
+
+	public long getMaxAbortBallot() {
+		return maxAbortBallot;
+	}
+
+	/**
+	 * @brief Sets the base of the backoff window, from the round-trip times with the adaptive failure detector
+	 * @param abortTimeout In us, 0 to re-propose at once
+	*/
+	public void setAbortTimeout(int abortTimeout) {
+		this.abortTimeout = abortTimeout;
+	}
+
+	/**
+	 * @brief Draws the delay before re-proposing, uniform in [0, base * 2^min(aborts - 1, MAX_BACKOFF_DOUBLINGS)), so that the dueling proposers spread out
+	 * @param base The first window, in us
+	 * @param aborts The number of ABORTs in a row, from 1
+	 * @return The delay in us
+	*/
+	static int backoff(int base, int aborts, Random random) {
+		long window = (long) base << Math.min(aborts - 1, MAX_BACKOFF_DOUBLINGS);
+		return (int) (random.nextDouble() * window);
+	}
+
+	/**
+	 * @brief Crashes with probability crashProbability if told to crash
+	*/
+	private void crashCheck() {
+		if (shouldCrash && random.nextDouble() < crashProbability) {
+			crashed = true;
+			out.add(Outputs.CRASHED, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * @brief Draws the crash of a step handled outside this class, CRASHED is the only possible output
+	*/
+	public void checkCrash() {
+		out.clear();
+		if (!crashed) crashCheck();
+	}
+
+	/**
+	 * @brief The process may crash from now on (CRASH message)
+	*/
+	public void mayCrash() {
+		shouldCrash = true;
+	}
+
+	/**
+	 * @brief Crashes now, without output
+	*/
+	public void crash() {
+		crashed = true;
+	}
+
+	/**
+	 * @brief The process stops re-proposing after an ABORT (another process is the leader)
+	*/
+	public void hold() {
+		hold = true;
+	}
+
+	/**
+	 * @brief The process trusts itself as the leader again and proposes with its next ballot, unless it decided
+	*/
+	public void lead() {
+		out.clear();
+		hold = false;
+		if (!decided) doPropose(proposal);
+	}
+
+	/**
+	 * @brief Restarts a crashed process with its durable acceptor state, forgetting the decision
+	*/
+	public void restart(long readBallot, long imposeBallot, int estimate) {
+		acceptor.restore(readBallot, imposeBallot);
+		this.estimate = estimate;
+		decided = false;
+		proposeResult = -2;
+		gathers.stop();
+		acks.stop();
+		aborts = 0;
+		shouldCrash = false;
+		crashed = false;
+	}
+
+	/**
+	 * @brief Proposes a value with the next ballot of the process
+	*/
+	public void propose(int v) {
+		out.clear();
+		doPropose(v);
+	}
+
+	private void doPropose(int v) {
+		if (crashed) return;
+		crashCheck();
+		if (crashed) return;
+		proposal = v;
+		ballot = Ballot.next(ballot, highestSeenBallot);
+		gathers.start(ballot);
+		acks.stop();
+		maxStateBallot = 0;
+		out.add(Outputs.READ, ballot, v, 0);
+	}
+
+	public void onRead(long ballot) {
+		out.clear();
+		if (crashed || proposeResult >= 0) return;
+		crashCheck();
+		if (crashed) return;
+		if (acceptor.read(ballot)) out.add(Outputs.GATHER, ballot, estimate, acceptor.imposeBallot());
+		else out.add(Outputs.ABORT, ballot, 0, acceptor.highest());
+	}
+
+	/**
+	 * @brief An ABORT of an earlier ballot only raises highestSeenBallot, the current ballot may still reach its quorums
+	 * @param ballot The rejected ballot
+	 * @param highestBallot The highest ballot of the acceptor, the next ballot of this process goes past it
+	*/
+	public void onAbort(long ballot, long highestBallot) {
+		out.clear();
+		if (crashed) return;
+		crashCheck();
+		if (crashed) return;
+		if (highestBallot > highestSeenBallot) highestSeenBallot = highestBallot;
+		if (ballot != this.ballot) return;
+		proposeResult = -1;
+		if (!hold && !decided && ballot > maxAbortBallot) {
+			out.add(Outputs.REPROPOSE, ballot, 0, maxAbortBallot);
+			maxAbortBallot = ballot;
+			aborts++;
+			if (abortTimeout == 0) doPropose(proposal);
+			else out.add(Outputs.BACKOFF, this.ballot, backoff(abortTimeout, aborts, random), 0);
+		}
+	}
+
+	/**
+	 * @brief Re-proposes once the backoff after an ABORT is over, unless the process proposed, decided or stopped proposing meanwhile
+	 * @param ballot The ballot of the BACKOFF output
+	*/
+	public void retry(long ballot) {
+		out.clear();
+		if (crashed || hold || decided || ballot != this.ballot) return;
+		doPropose(proposal);
+	}
+
+	/**
+	 * @param from The sender, from 1 to N
+	*/
+	public void onGather(int from, long ballot, long imposeBallot, int estimate) {
+		out.clear();
+		if (crashed || proposeResult >= 0) return;
+		crashCheck();
+		if (crashed) return;
+		if (!gathers.add(ballot, from)) return;
+		if (imposeBallot > maxStateBallot) {
+			maxStateBallot = imposeBallot;
+			maxStateEstimate = estimate;
+		}
+		if (gathers.justReached()) {
+			if (maxStateBallot > 0) proposal = maxStateEstimate;
+			aborts = 0;
+			acks.start(this.ballot);
+			out.add(Outputs.IMPOSE, this.ballot, proposal, 0);
+		}
+	}
+
+	public void onImpose(long ballot, int proposal) {
+		out.clear();
+		if (crashed || proposeResult >= 0) return;
+		crashCheck();
+		if (crashed) return;
+		if (acceptor.impose(ballot)) {
+			estimate = proposal;
+			out.add(Outputs.ACK, ballot, proposal, 0);
+		}
+		else out.add(Outputs.ABORT, ballot, 0, acceptor.highest());
+	}
+
+	/**
+	 * @param from The sender, from 1 to N
+	*/
+	public void onACK(int from, long ballot) {
+		out.clear();
+		if (crashed || proposeResult >= 0) return;
+		crashCheck();
+		if (crashed) return;
+		if (acks.add(ballot, from) && acks.justReached()) {
+			decided = true;
+			out.add(Outputs.DECIDE, this.ballot, proposal, 0);
+		}
+	}
+
+	public void onDecide(int proposal) {
+		out.clear();
+		if (crashed) return;
+		crashCheck();
+		if (crashed) return;
+		learn(proposal);
+	}
+
+	/**
+	 * @brief Learns the value decided before a restart, from a catch-up
+	*/
+	public void onCatchup(int value) {
+		out.clear();
+		learn(value);
+	}
+
+	private void learn(int value) {
+		proposeResult = value;
+		decided = true;
+		out.add(Outputs.LEARNED, 0, value, 0);
+	}
+}
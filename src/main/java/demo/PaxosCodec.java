@@ -0,0 +1,400 @@
+/**
+ * @file PaxosCodec.java
+ * @brief File containing the compact binary encoding of the messages exchanged by the processes
+*/
+package demo;
+
+import java.nio.ByteBuffer;
+
+import demo.Main.*;
+
+/**
+ * @class PaxosCodec
+ * @brief Encodes a message as a one-byte type tag followed by its fields, ints and ballots (longs) as zigzag varints and arrays prefixed by their length + 1 (0 for null)
+*/
+public final class PaxosCodec {
+	static final byte READ = 1, GATHER = 2, IMPOSE = 3, ACK = 4, ABORT = 5, DECIDE = 6;
+	static final byte COMMAND = 7, CATCHUP = 8, CATCHUP_REPLY = 9, SNAPSHOT = 10;
+	static final byte LAUNCH = 11, CRASH = 12, DONE = 14, HEARTBEAT = 15; // 13 was HOLD, the tags of older traces keep their meaning
+
+	private PaxosCodec() {
+	}
+
+	/**
+	 * @return true if the message has a binary encoding
+	*/
+	public static boolean supports(Object m) {
+		return tag(m) != 0;
+	}
+
+	private static byte tag(Object m) {
+		if (m instanceof ReadMessage) return READ;
+		if (m instanceof GatherMessage) return GATHER;
+		if (m instanceof ImposeMessage) return IMPOSE;
+		if (m instanceof ACKMessage) return ACK;
+		if (m instanceof AbortMessage) return ABORT;
+		if (m instanceof DecideMessage) return DECIDE;
+		if (m instanceof CommandMessage) return COMMAND;
+		if (m instanceof CatchupMessage) return CATCHUP;
+		if (m instanceof CatchupReplyMessage) return CATCHUP_REPLY;
+		if (m instanceof SnapshotMessage) return SNAPSHOT;
+		if (m instanceof LaunchMessage) return LAUNCH;
+		if (m instanceof CrashMessage) return CRASH;
+		if (m instanceof DoneMessage) return DONE;
+		if (m instanceof HeartbeatMessage) return HEARTBEAT;
+		return 0;
+	}
+
+	/**
+	 * @brief Computes the exact size of the encoding
+	 * @param m The message
+	 * @return The number of bytes encode() writes
+	*/
+	public static int sizeOf(Object m) {
+		switch (tag(m)) {
+			case READ: {
+				ReadMessage r = (ReadMessage) m;
+				return 1 + sizeOf(r.ballot) + sizeOf(r.slot);
+			}
+			case GATHER: {
+				GatherMessage g = (GatherMessage) m;
+				return 1 + sizeOf(g.ballot) + sizeOf(g.imposeBallot) + sizeOf(g.estimate) + sizeOf(g.slot) + sizeOf(g.imposeBallots) + sizeOf(g.estimates);
+			}
+			case IMPOSE: {
+				ImposeMessage i = (ImposeMessage) m;
+				return 1 + sizeOf(i.ballot) + sizeOf(i.proposal) + sizeOf(i.slot) + sizeOf(i.batch);
+			}
+			case ACK: {
+				ACKMessage a = (ACKMessage) m;
+				return 1 + sizeOf(a.ballot) + sizeOf(a.slot);
+			}
+			case ABORT: {
+				AbortMessage a = (AbortMessage) m;
+				return 1 + sizeOf(a.ballot) + sizeOf(a.highestBallot);
+			}
+			case DECIDE: {
+				DecideMessage d = (DecideMessage) m;
+				return 1 + sizeOf(d.proposal) + sizeOf(d.slot) + sizeOf(d.batch);
+			}
+			case COMMAND:
+				return 1 + sizeOf(((CommandMessage) m).command);
+			case CATCHUP:
+				return 1 + sizeOf(((CatchupMessage) m).slot);
+			case CATCHUP_REPLY: {
+				CatchupReplyMessage c = (CatchupReplyMessage) m;
+				return 1 + sizeOf(c.slot) + sizeOf(c.batches);
+			}
+			case SNAPSHOT: {
+				SnapshotMessage s = (SnapshotMessage) m;
+				int size = 1 + sizeOf(s.slot) + sizeOf(s.appliedCount) + 8 + sizeOf(s.applied.length + 1);
+				return size + 8 * s.applied.length;
+			}
+			case LAUNCH:
+			case CRASH:
+				return 1;
+			case DONE:
+				return 2 + sizeOf(((DoneMessage) m).id);
+			case HEARTBEAT:
+				return 1 + sizeOf(((HeartbeatMessage) m).id);
+			default:
+				throw new IllegalArgumentException("No binary encoding for " + m.getClass().getName());
+		}
+	}
+
+	/**
+	 * @brief Writes the message at the position of the buffer
+	 * @param m The message
+	 * @param out The buffer, with at least sizeOf(m) bytes remaining
+	*/
+	public static void encode(Object m, ByteBuffer out) {
+		byte tag = tag(m);
+		out.put(tag);
+		switch (tag) {
+			case READ: {
+				ReadMessage r = (ReadMessage) m;
+				putLong(out, r.ballot);
+				putInt(out, r.slot);
+				break;
+			}
+			case GATHER: {
+				GatherMessage g = (GatherMessage) m;
+				putLong(out, g.ballot);
+				putLong(out, g.imposeBallot);
+				putInt(out, g.estimate);
+				putInt(out, g.slot);
+				putLongs(out, g.imposeBallots);
+				putBatches(out, g.estimates);
+				break;
+			}
+			case IMPOSE: {
+				ImposeMessage i = (ImposeMessage) m;
+				putLong(out, i.ballot);
+				putInt(out, i.proposal);
+				putInt(out, i.slot);
+				putInts(out, i.batch);
+				break;
+			}
+			case ACK: {
+				ACKMessage a = (ACKMessage) m;
+				putLong(out, a.ballot);
+				putInt(out, a.slot);
+				break;
+			}
+			case ABORT: {
+				AbortMessage a = (AbortMessage) m;
+				putLong(out, a.ballot);
+				putLong(out, a.highestBallot);
+				break;
+			}
+			case DECIDE: {
+				DecideMessage d = (DecideMessage) m;
+				putInt(out, d.proposal);
+				putInt(out, d.slot);
+				putInts(out, d.batch);
+				break;
+			}
+			case COMMAND:
+				putInt(out, ((CommandMessage) m).command);
+				break;
+			case CATCHUP:
+				putInt(out, ((CatchupMessage) m).slot);
+				break;
+			case CATCHUP_REPLY: {
+				CatchupReplyMessage c = (CatchupReplyMessage) m;
+				putInt(out, c.slot);
+				putBatches(out, c.batches);
+				break;
+			}
+			case SNAPSHOT: {
+				SnapshotMessage s = (SnapshotMessage) m;
+				putInt(out, s.slot);
+				putInt(out, s.appliedCount);
+				out.putLong(s.digest);
+				putInt(out, s.applied.length + 1);
+				for (long word : s.applied) out.putLong(word);
+				break;
+			}
+			case LAUNCH:
+			case CRASH:
+				break;
+			case DONE: {
+				DoneMessage d = (DoneMessage) m;
+				putInt(out, d.id);
+				out.put((byte) (d.crashed ? 1 : 0));
+				break;
+			}
+			case HEARTBEAT:
+				putInt(out, ((HeartbeatMessage) m).id);
+				break;
+			default:
+				throw new IllegalArgumentException("No binary encoding for " + m.getClass().getName());
+		}
+	}
+
+	/**
+	 * @brief Encodes the message in a new array of the exact size
+	*/
+	public static byte[] encode(Object m) {
+		byte[] bytes = new byte[sizeOf(m)];
+		encode(m, ByteBuffer.wrap(bytes));
+		return bytes;
+	}
+
+	/**
+	 * @brief Reads one message from the position of the buffer
+	 * @param in The buffer
+	 * @return The decoded message
+	*/
+	public static Object decode(ByteBuffer in) {
+		byte tag = in.get();
+		switch (tag) {
+			case READ:
+				return new ReadMessage(getLong(in), getInt(in));
+			case GATHER: {
+				GatherMessage g = new GatherMessage(getLong(in), getLong(in), getInt(in));
+				g.slot = getInt(in);
+				g.imposeBallots = getLongs(in);
+				g.estimates = getBatches(in);
+				return g;
+			}
+			case IMPOSE: {
+				ImposeMessage i = new ImposeMessage(getLong(in), getInt(in));
+				i.slot = getInt(in);
+				i.batch = getInts(in);
+				return i;
+			}
+			case ACK:
+				return new ACKMessage(getLong(in), getInt(in));
+			case ABORT:
+				return new AbortMessage(getLong(in), getLong(in));
+			case DECIDE: {
+				DecideMessage d = new DecideMessage(getInt(in));
+				d.slot = getInt(in);
+				d.batch = getInts(in);
+				return d;
+			}
+			case COMMAND:
+				return new CommandMessage(getInt(in));
+			case CATCHUP:
+				return new CatchupMessage(getInt(in));
+			case CATCHUP_REPLY:
+				return new CatchupReplyMessage(getInt(in), getBatches(in));
+			case SNAPSHOT: {
+				int slot = getInt(in);
+				int appliedCount = getInt(in);
+				long digest = in.getLong();
+				long[] applied = new long[getInt(in) - 1];
+				for (int i = 0; i < applied.length; i++) applied[i] = in.getLong();
+				return new SnapshotMessage(slot, applied, appliedCount, digest);
+			}
+			case LAUNCH:
+				return new LaunchMessage();
+			case CRASH:
+				return new CrashMessage();
+			case DONE:
+				return new DoneMessage(getInt(in), in.get() != 0);
+			case HEARTBEAT:
+				return new HeartbeatMessage(getInt(in));
+			default:
+				throw new IllegalArgumentException("Unknown message tag " + tag);
+		}
+	}
+
+	public static Object decode(byte[] bytes) {
+		return decode(ByteBuffer.wrap(bytes));
+	}
+
+	private static int sizeOf(int v) {
+		int zigzag = (v << 1) ^ (v >> 31);
+		int size = 1;
+		while ((zigzag & ~0x7F) != 0) {
+			zigzag >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static int sizeOf(long v) {
+		long zigzag = (v << 1) ^ (v >> 63);
+		int size = 1;
+		while ((zigzag & ~0x7FL) != 0) {
+			zigzag >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static int sizeOf(long[] values) {
+		if (values == null) return 1;
+		int size = sizeOf(values.length + 1);
+		for (long v : values) size += sizeOf(v);
+		return size;
+	}
+
+	private static int sizeOf(int[] values) {
+		if (values == null) return 1;
+		int size = sizeOf(values.length + 1);
+		for (int v : values) size += sizeOf(v);
+		return size;
+	}
+
+	private static int sizeOf(int[][] batches) {
+		if (batches == null) return 1;
+		int size = sizeOf(batches.length + 1);
+		for (int[] batch : batches) size += sizeOf(batch);
+		return size;
+	}
+
+	private static void putInt(ByteBuffer out, int v) {
+		int zigzag = (v << 1) ^ (v >> 31);
+		while ((zigzag & ~0x7F) != 0) {
+			out.put((byte) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.put((byte) zigzag);
+	}
+
+	private static void putLong(ByteBuffer out, long v) {
+		long zigzag = (v << 1) ^ (v >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			out.put((byte) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.put((byte) zigzag);
+	}
+
+	private static void putLongs(ByteBuffer out, long[] values) {
+		if (values == null) {
+			putInt(out, 0);
+			return;
+		}
+		putInt(out, values.length + 1);
+		for (long v : values) putLong(out, v);
+	}
+
+	private static void putInts(ByteBuffer out, int[] values) {
+		if (values == null) {
+			putInt(out, 0);
+			return;
+		}
+		putInt(out, values.length + 1);
+		for (int v : values) putInt(out, v);
+	}
+
+	private static void putBatches(ByteBuffer out, int[][] batches) {
+		if (batches == null) {
+			putInt(out, 0);
+			return;
+		}
+		putInt(out, batches.length + 1);
+		for (int[] batch : batches) putInts(out, batch);
+	}
+
+	private static int getInt(ByteBuffer in) {
+		int zigzag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			zigzag |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	private static long getLong(ByteBuffer in) {
+		long zigzag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			zigzag |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	private static long[] getLongs(ByteBuffer in) {
+		int length = getInt(in) - 1;
+		if (length < 0) return null;
+		long[] values = new long[length];
+		for (int i = 0; i < length; i++) values[i] = getLong(in);
+		return values;
+	}
+
+	private static int[] getInts(ByteBuffer in) {
+		int length = getInt(in) - 1;
+		if (length < 0) return null;
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) values[i] = getInt(in);
+		return values;
+	}
+
+	private static int[][] getBatches(ByteBuffer in) {
+		int length = getInt(in) - 1;
+		if (length < 0) return null;
+		int[][] batches = new int[length][];
+		for (int i = 0; i < length; i++) batches[i] = getInts(in);
+		return batches;
+	}
+}
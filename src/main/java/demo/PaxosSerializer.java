@@ -0,0 +1,34 @@
+/**
+ * @file PaxosSerializer.java
+ * @brief File containing the Akka serializer of the Paxos messages
+*/
+package demo;
+
+import akka.serialization.JSerializer;
+
+/**
+ * @class PaxosSerializer
+ * @brief Akka serializer using PaxosCodec, the type tag in the payload replaces the class manifest
+*/
+public class PaxosSerializer extends JSerializer {
+
+	@Override
+	public int identifier() {
+		return 21020;
+	}
+
+	@Override
+	public boolean includeManifest() {
+		return false;
+	}
+
+	@Override
+	public byte[] toBinary(Object o) {
+		return PaxosCodec.encode(o);
+	}
+
+	@Override
+	public Object fromBinaryJava(byte[] bytes, Class<?> manifest) {
+		return PaxosCodec.decode(bytes);
+	}
+}
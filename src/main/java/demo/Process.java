@@ -5,44 +5,128 @@
 package demo;
 
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
 import akka.actor.AbstractActor;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import scala.concurrent.duration.Duration;
+
+import org.HdrHistogram.Histogram;
 
 import demo.Main.*;
+import demo.EventLog.Event;
 
 /**
  * @class Process
  * @brief Class representing the actor
 */
 public class Process extends AbstractActor {
-	static double CRASH_PROBABILITY; // Probability of crashing, alpha
-	static int BOUND_OF_PROPOSED_NUMBER; // Bound of the proposed number (exclusive)
-	static int ABORT_TIMEOUT; // Timeout for abort
+	// Per process, as processes of different runs may share the JVM
+	private double CRASH_PROBABILITY; // Probability of crashing, alpha
+	private int BOUND_OF_PROPOSED_NUMBER; // Bound of the proposed number (exclusive)
+	private int ABORT_TIMEOUT; // Base of the backoff window before re-proposing after an ABORT, in ms, 0 to re-propose at once
+	static final int[] NO_OP = new int[0]; // Batch imposed in a slot left empty by a previous leader
 
 	private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
+	private final EventLog events = new EventLog(log, getSelf().path().name());
+	private Trace.Buffer trace; // null when tracing is off
+	private Metrics metrics; // Decide times shared by the processes of the JVM
+	private ActorRef coordinator; // Told once this process is done, null when nobody waits for it
+	private boolean reportedDone = false;
+	private final Histogram[] phases = Metrics.histograms(); // Latency of every phase, in ns
+	private long firstProposeTime = 0, proposeTime, imposeTime;
+	private boolean propagationRecorded = false;
 	private int id, N;
 	private ActorRef[] actors;
-	private boolean launched = false, shouldCrash = false, crashed = false, hold = false, decided = false;
-
-	private int ballot, proposal, readBallot, imposeBallot, estimate;
-	private int maxAbortBallot = Integer.MIN_VALUE;
-	private Pair[] states;
+	private HashMap<ActorRef, Integer> ids; // Identifier of each process from its reference, actors[i] being process i + 1
+	private boolean launched = false, hold = false, decided = false;
 
-	private int receivedStates = 0;
-	private boolean biggerThanHalf = false;
+	// Single-decree protocol and crash-stop state, the actor only sends its outputs
+	private Paxos paxos;
 
-	private int ACKnum = 0;
-	private boolean ACKconfirmed = false;
+	// Eventual leader detector, the process proposes only while it trusts itself
+	private Omega omega;
+	private int leaderElectionTimeout, heartbeatInterval; // ms
+	private boolean adaptive = false; // Phi accrual suspicion and backoff from the round-trip times (FAILURE_DETECTOR = phi)
+	private final RoundTrip roundTrip = new RoundTrip();
+	private long timedBallot = Long.MIN_VALUE; // Ballot of the READ waiting for its first reply
+	private Cancellable ticks; // TICK every heartbeatInterval from LAUNCH until a crash
 
-	private int proposeResult = -2;
+	// Ballots of multi-Paxos, the single-decree ones are in paxos
+	private long ballot; // See Ballot for the layout, the acceptor ballots are those of paxos
+	private long maxAbortBallot = Long.MIN_VALUE;
+	private long highestSeenBallot = 0; // Multi-Paxos, highest ballot carried by an ABORT, the next ballot goes past it
+	private Quorum slotGathers; // GATHERs of the multi-Paxos ballot, once per sender
+	private int slotAborts = 0; // ABORTs since the last GATHER quorum, the exponent of the backoff window
+	private Random random;
 
 	private long startTime = 0;
 	private long endTime = 0;
 
+	// Multi-Paxos state, used when numberOfCommands > 0
+	private int numberOfCommands = 0;
+	private SlotLog slots; // Acceptor and learner state of every slot
+	private SlotLog recovered; // Highest-ballot estimates gathered during phase 1
+	private ArrayDeque<Integer> pendingCommands;
+	private BitSet received; // Commands queued once, sent by the client or forwarded by a process following another leader
+	private BitSet committed; // Commands decided in some slot
+	private boolean leading = false; // Phase 1 succeeded for the current ballot
+	private int readSlot, nextSlot;
+
+	// Pipeline window of the leader, slot s is stored at index s % pipelineDepth
+	private int pipelineDepth = 1;
+	private int windowBase = 0; // Lowest slot imposed by this leader still waiting for its ACK quorum
+	private int inFlight = 0;
+	private int[] windowSlots;
+	private Quorum[] windowACKs;
+	private int[][] windowValues;
+	private long[] windowTimes;
+
+	// Batching stage in front of the slots
+	private int batchSize = 1;
+	private int batchTimeout = 0; // ms
+	private long batchOpenedAt = 0; // nanoTime of the oldest command of the partial batch
+	private boolean batchTimerScheduled = false;
+	private int[] batchSizes; // batchSizes[k] is the number of batches of k commands imposed by this process
+
+	// Durability of the acceptor state, store is null when DURABILITY is none
+	private AcceptorStore store;
+	private SlotStore slotStore; // The same store in multi-Paxos, null in single-decree mode
+	private boolean groupCommit = false;
+	private boolean syncScheduled = false;
+	private final ArrayList<ActorRef> deferredReceivers = new ArrayList<>();
+	private final ArrayList<Object> deferredReplies = new ArrayList<>();
+	private String durability = "none";
+	private boolean mmapForce = true;
+
+	// Crash-recovery, recoveryDowntime is 0 in the crash-stop model
+	static final int THROUGHPUT_BUCKET = 100; // ms
+	private int recoveryDowntime = 0;
+	private boolean recovering = false;
+	private long crashTime = 0, restartTime = 0, reloadTime = 0;
+	private int[] decidedPerBucket = new int[64]; // Commands decided in every THROUGHPUT_BUCKET since launch
+
+	// Applied state of the replicated log, compacted every snapshotInterval slots (0 keeps the whole log)
+	private int snapshotInterval = 0;
+	private int appliedSlot = 0; // Every slot below is applied
+	private BitSet applied;
+	private int appliedCount = 0;
+	private long digest = 0; // Hash of the sequence of applied commands, equal on every replica
+	private Snapshot snapshot; // Latest snapshot, null before the first one
+
 	/**
 	 * @brief Initializes the actor
 	 * @param id The unique identifier of the actor
@@ -56,7 +140,7 @@ public class Process extends AbstractActor {
 	}
 
 	public int getProposeResult() {
-		return proposeResult;
+		return paxos.getProposeResult();
 	}
 
 	/**
@@ -80,241 +164,1039 @@ public class Process extends AbstractActor {
 			.match(ActorinfoMessage.class, this::receiveActorinfoMessage)
 			.match(LaunchMessage.class, this::receiveLaunchMessage)
 			.match(CrashMessage.class, this::receiveCrashMessage)
-			.match(HoldMessage.class, this::receiveHoldMessage)
+			.match(TickMessage.class, this::receiveTickMessage)
+			.match(HeartbeatMessage.class, this::receiveHeartbeatMessage)
 			.match(ReadMessage.class, this::receiveReadMessage)
 			.match(AbortMessage.class, this::receiveAbortMessage)
 			.match(GatherMessage.class, this::receiveGatherMessage)
 			.match(ImposeMessage.class, this::receiveImposeMessage)
 			.match(ACKMessage.class, this::receiveACKMessage)
 			.match(DecideMessage.class, this::receiveDecideMessage)
+			.match(RetryMessage.class, this::receiveRetryMessage)
+			.match(SyncMessage.class, this::receiveSyncMessage)
+			.match(RestartMessage.class, this::receiveRestartMessage)
+			.match(CatchupMessage.class, this::receiveCatchupMessage)
+			.match(CatchupReplyMessage.class, this::receiveCatchupReplyMessage)
 			.build();
 	}
 
 	/**
-	 * @brief Proposes a value
-	 * @param v The value to propose
+	 * @brief Creates the actor's behavior in multi-Paxos mode
+	 * @return
 	*/
-	void propose (int v) {
-		if (crashed) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+	private Receive multiPaxosReceive() {
+		return receiveBuilder()
+			.match(ActorinfoMessage.class, this::receiveActorinfoMessage)
+			.match(LaunchMessage.class, this::receiveLaunchMessage)
+			.match(CrashMessage.class, this::receiveCrashMessage)
+			.match(TickMessage.class, this::receiveTickMessage)
+			.match(HeartbeatMessage.class, this::receiveHeartbeatMessage)
+			.match(CommandMessage.class, this::receiveCommandMessage)
+			.match(BatchTimeoutMessage.class, this::receiveBatchTimeoutMessage)
+			.match(ReadMessage.class, this::receiveSlotReadMessage)
+			.match(AbortMessage.class, this::receiveSlotAbortMessage)
+			.match(GatherMessage.class, this::receiveSlotGatherMessage)
+			.match(ImposeMessage.class, this::receiveSlotImposeMessage)
+			.match(ACKMessage.class, this::receiveSlotACKMessage)
+			.match(DecideMessage.class, this::receiveSlotDecideMessage)
+			.match(RetryMessage.class, this::receiveSlotRetryMessage)
+			.match(SyncMessage.class, this::receiveSyncMessage)
+			.match(RestartMessage.class, this::receiveRestartMessage)
+			.match(CatchupMessage.class, this::receiveCatchupMessage)
+			.match(CatchupReplyMessage.class, this::receiveCatchupReplyMessage)
+			.match(SnapshotMessage.class, this::receiveSnapshotMessage)
+			.build();
+	}
+
+	@Override
+	public void postStop() {
+		if (ticks != null) ticks.cancel();
+		if (metrics != null) metrics.merge(phases);
+		if (store == null) return;
+		try {
+			events.log(Event.CLOSING_STORE, store.getSyncs());
+			store.close();
+		} catch (IOException e) {
+			log.error(e, "["+getSelf().path().name()+"] failed to close store");
+		}
+	}
+
+	/**
+	 * @brief Records a new readBallot in the durable store
+	 * @param ballot The promised ballot
+	*/
+	private void persistRead(long ballot) {
+		if (store == null) return;
+		try {
+			store.saveRead(ballot);
+		} catch (IOException e) {
+			storeFailure(e);
+		}
+	}
+
+	/**
+	 * @brief Records the single-decree estimate in the durable store
+	 * @param ballot The ballot of the IMPOSE
+	 * @param estimate The imposed value
+	*/
+	private void persistImpose(long ballot, int estimate) {
+		if (store == null) return;
+		try {
+			store.saveImpose(ballot, estimate);
+		} catch (IOException e) {
+			storeFailure(e);
+		}
+	}
+
+	/**
+	 * @brief Records the estimate of a slot in the durable store
+	 * @param slot The slot index
+	 * @param ballot The ballot of the IMPOSE
+	 * @param batch The imposed batch
+	*/
+	private void persistImpose(int slot, long ballot, int[] batch) {
+		if (slotStore == null) return;
+		try {
+			slotStore.saveImpose(slot, ballot, batch);
+		} catch (IOException e) {
+			storeFailure(e);
+		}
+	}
+
+	/**
+	 * @brief A process that cannot persist its state stops answering
+	*/
+	private void storeFailure(IOException e) {
+		log.error(e, "["+getSelf().path().name()+"] store failure, crashing");
+		crash();
+	}
+
+	/**
+	 * @brief Opens the durable store selected by DURABILITY
+	 * @param recover Keeps the state of a previous run if true
+	*/
+	private void openStore(boolean recover) throws IOException {
+		if (!recover) Files.deleteIfExists(snapshotPath());
+		switch (durability) {
+			case "fsync":
+			case "group": {
+				WriteAheadLog wal = new WriteAheadLog(Paths.get("wal", getSelf().path().name() + ".wal"), recover);
+				store = wal;
+				if (numberOfCommands > 0) slotStore = wal;
+				groupCommit = "group".equals(durability);
+				break;
 			}
+			case "mmap":
+				if (numberOfCommands > 0) throw new IOException("DURABILITY = mmap cannot hold the slots of multi-Paxos");
+				store = new MappedAcceptorState(Paths.get("wal", getSelf().path().name() + ".state"), mmapForce, recover);
+				break;
 		}
-		if (!crashed) {
-			proposal = v;
-			ballot += N;
-			for (int i = 0; i < N; i++) {
-				states[i].first = 0;
-				states[i].second = 0;
+	}
+
+	/**
+	 * @brief Replies to the sender once the acceptor state the reply depends on is on disk
+	 * @param reply The GATHER or ACK message
+	*/
+	private void replyDurably(Object reply) {
+		if (paxos.isCrashed()) return;
+		if (store == null) {
+			getSender().tell(reply, getSelf());
+		}
+		else if (!groupCommit) {
+			try {
+				store.sync();
+				getSender().tell(reply, getSelf());
+			} catch (IOException e) {
+				storeFailure(e);
 			}
-			ReadMessage readMessage = new ReadMessage(ballot);
-			for (int i = 0; i < N; i++) {
-				actors[i].tell(readMessage, getSelf());
+		}
+		else {
+			// The SYNC is queued behind the messages already in the mailbox, so one sync covers all of them
+			deferredReceivers.add(getSender());
+			deferredReplies.add(reply);
+			if (!syncScheduled) {
+				syncScheduled = true;
+				getSelf().tell(new SyncMessage(), getSelf());
+			}
+		}
+	}
+
+	public void receiveSyncMessage (SyncMessage m) {
+		syncScheduled = false;
+		if (paxos.isCrashed()) return;
+		try {
+			store.sync();
+		} catch (IOException e) {
+			storeFailure(e);
+			return;
+		}
+		for (int i = 0; i < deferredReplies.size(); i++) {
+			deferredReceivers.get(i).tell(deferredReplies.get(i), getSelf());
+		}
+		deferredReceivers.clear();
+		deferredReplies.clear();
+	}
+
+	/**
+	 * @return The identifier of the sender of the current message, from its name if it is not in actors
+	*/
+	private int senderId() {
+		Integer from = ids.get(getSender());
+		return from != null ? from : Trace.idOf(getSender());
+	}
+
+	/**
+	 * @brief Appends a record to the trace of the process, if tracing is on
+	*/
+	private void trace(int type, long ballot, ActorRef peer, int value) {
+		if (trace != null) trace.record(type, ballot, Trace.idOf(peer), value);
+	}
+
+	/**
+	 * @brief Crashes the process with probability CRASH_PROBABILITY if it was told to crash, for the multi-Paxos handlers
+	*/
+	private void checkCrash() {
+		paxos.checkCrash();
+		if (paxos.out.size() > 0) crashed();
+	}
+
+	/**
+	 * @brief Crashes the process now
+	*/
+	private void crash() {
+		paxos.crash();
+		crashed();
+	}
+
+	/**
+	 * @brief Tells the coordinator that this process decided or crashed for good, once
+	*/
+	private void reportDone(boolean crashed) {
+		if (reportedDone || coordinator == null) return;
+		reportedDone = true;
+		coordinator.tell(new DoneMessage(id, crashed), getSelf());
+	}
+
+	/**
+	 * @brief Stops the crashed process, losing its volatile state, and schedules its restart in the crash-recovery model
+	*/
+	private void crashed() {
+		events.log(Event.CRASHED);
+		trace(Trace.CRASHED, 0, null, 0);
+		if (recoveryDowntime == 0) reportDone(true);
+		if (ticks != null) ticks.cancel();
+		crashTime = System.currentTimeMillis();
+		deferredReceivers.clear();
+		deferredReplies.clear();
+		if (store != null) {
+			try {
+				store.close();
+			} catch (IOException e) {
+				log.error(e, "["+getSelf().path().name()+"] failed to close store");
+			}
+			store = null;
+			slotStore = null;
+		}
+		if (recoveryDowntime > 0) {
+			getContext().getSystem().scheduler().scheduleOnce(Duration.create(recoveryDowntime, TimeUnit.MILLISECONDS), getSelf(), new RestartMessage(), getContext().dispatcher(), ActorRef.noSender());
+		}
+	}
+
+	/**
+	 * @brief Restarts the crashed process from its durable state and asks the others for the decided values
+	*/
+	public void receiveRestartMessage (RestartMessage m) {
+		if (!paxos.isCrashed()) return;
+		restartTime = System.currentTimeMillis();
+		long start = System.nanoTime();
+		long[] register;
+		try {
+			openStore(true);
+			if (numberOfCommands > 0) {
+				slots = new SlotLog();
+				recovered.clear();
+				committed.clear();
+				pendingCommands.clear();
+				received.clear();
+				Arrays.fill(windowSlots, -1);
+				inFlight = 0;
+				snapshot = Snapshot.read(snapshotPath());
+				if (snapshot != null) {
+					restoreSnapshot(snapshot);
+				}
+				else {
+					applied.clear();
+					appliedCount = 0;
+					appliedSlot = 0;
+					digest = 0;
+				}
+			}
+			register = numberOfCommands > 0 ? slotStore.load(slots) : store.load();
+		} catch (IOException e) {
+			log.error(e, "["+getSelf().path().name()+"] cannot reload its state");
+			return;
+		}
+		reloadTime = System.nanoTime() - start;
+		paxos.restart(register[0], register[1], (int) register[2]);
+		leading = false;
+		decided = false;
+		slotGathers.stop();
+		recovering = true;
+		startTicks();
+		events.log(Event.RESTARTED, register[0], register[1], register[2]);
+		// A leader back before the others suspected it sees no leader change, it takes its role back here
+		if (omega.isLeader()) leaderChanged();
+		CatchupMessage catchupMessage = new CatchupMessage(numberOfCommands > 0 ? slots.firstUndecided() : 0);
+		for (int i = 0; i < N; i++) {
+			if (actors[i] != getSelf()) actors[i].tell(catchupMessage, getSelf());
+		}
+	}
+
+	public void receiveCatchupMessage (CatchupMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.CATCHUP, getSender(), m.slot);
+		// The leader restarted without the commands it had not imposed yet
+		if (numberOfCommands > 0 && !omega.isLeader() && senderId() == omega.leader()) forwardPending(getSender());
+		int[][] batches;
+		int from = m.slot;
+		if (numberOfCommands > 0) {
+			if (from < slots.base()) {
+				sendSnapshot(getSender());
+				from = slots.base();
+			}
+			batches = slots.decidedFrom(from);
+		}
+		else if (paxos.getProposeResult() >= 0) batches = new int[][] {{paxos.getProposeResult()}};
+		else batches = new int[0][];
+		getSender().tell(new CatchupReplyMessage(from, batches), getSelf());
+	}
+
+	public void receiveCatchupReplyMessage (CatchupReplyMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.CATCHUP_REPLY, getSender(), m.slot, m.batches.length);
+		if (numberOfCommands > 0) {
+			for (int i = 0; i < m.batches.length; i++) {
+				applyBatch(m.slot + i, m.batches[i]);
+			}
+		}
+		else if (m.batches.length > 0 && paxos.getProposeResult() < 0) {
+			paxos.onCatchup(m.batches[0][0]);
+			events.log(Event.DECIDE, getSender(), paxos.getProposeResult());
+			trace(Trace.DECIDE, 0, getSender(), paxos.getProposeResult());
+			reportDone(false);
+		}
+		if (recovering) {
+			recovering = false;
+			long now = System.currentTimeMillis();
+			events.log(Event.RECOVERED, id, restartTime - crashTime, reloadTime / 1000, now - restartTime, m.batches.length);
+		}
+	}
+
+	/**
+	 * @brief Proposes a value
+	 * @param v The value to propose
+	*/
+	void propose (int v) {
+		paxos.propose(v);
+		send();
+	}
+
+	/**
+	 * @brief Sends the outputs of the last input of paxos, the replies to the sender of the current message
+	*/
+	private void send() {
+		Paxos.Outputs out = paxos.out;
+		for (int k = 0; k < out.size(); k++) {
+			long ballot = out.ballot(k);
+			int value = out.value(k);
+			switch (out.kind(k)) {
+				case Paxos.Outputs.READ: {
+					proposeTime = System.nanoTime();
+					if (firstProposeTime == 0) firstProposeTime = proposeTime;
+					timedBallot = ballot;
+					ReadMessage readMessage = new ReadMessage(ballot);
+					for (int i = 0; i < N; i++) {
+						actors[i].tell(readMessage, getSelf());
+					}
+					events.log(Event.PROPOSED, value, ballot);
+					trace(Trace.PROPOSE, ballot, null, value);
+					break;
+				}
+				case Paxos.Outputs.GATHER:
+					persistRead(ballot);
+					replyDurably(new GatherMessage(ballot, out.extra(k), value));
+					break;
+				case Paxos.Outputs.IMPOSE: {
+					imposeTime = System.nanoTime();
+					phases[Metrics.PROPOSE_GATHER].recordValue(imposeTime - proposeTime);
+					ImposeMessage imposeMessage = new ImposeMessage(ballot, value);
+					for (int i = 0; i < N; i++) {
+						actors[i].tell(imposeMessage, getSelf());
+					}
+					break;
+				}
+				case Paxos.Outputs.ACK:
+					persistImpose(ballot, value);
+					replyDurably(new ACKMessage(ballot));
+					break;
+				case Paxos.Outputs.ABORT:
+					getSender().tell(new AbortMessage(ballot, out.extra(k)), getSelf());
+					break;
+				case Paxos.Outputs.DECIDE: {
+					endTime = System.currentTimeMillis();
+					long now = System.nanoTime();
+					phases[Metrics.IMPOSE_ACK].recordValue(now - imposeTime);
+					phases[Metrics.PROPOSE_DECIDE].recordValue(now - firstProposeTime);
+					if (metrics != null) metrics.decided(0, now);
+					events.log(Event.DECIDED, id, value, ballot, endTime - startTime);
+					trace(Trace.DECIDED, ballot, null, value);
+					DecideMessage decideMessage = new DecideMessage(value);
+					for (int i = 0; i < N; i++) {
+						actors[i].tell(decideMessage, getSelf());
+					}
+					break;
+				}
+				case Paxos.Outputs.REPROPOSE:
+					events.log(Event.REPROPOSE, ballot, out.extra(k));
+					break;
+				case Paxos.Outputs.BACKOFF:
+					scheduleRetry(ballot, value);
+					break;
+				case Paxos.Outputs.LEARNED:
+					// Only on a DECIDE: a process crashing on it learns nothing, and the catch-up logs its own
+					events.log(Event.DECIDE, getSender(), value);
+					trace(Trace.DECIDE, 0, getSender(), value);
+					if (!propagationRecorded) recordPropagation(0);
+					propagationRecorded = true;
+					reportDone(false);
+					break;
+				case Paxos.Outputs.CRASHED:
+					crashed();
+					break;
 			}
-			log.debug("["+getSelf().path().name()+"] proposed (value ["+v+"], ballot ["+(ballot)+"])");
 		}
 	}
 
 	public void receiveActorinfoMessage (ActorinfoMessage m) {
-		log.debug("["+getSelf().path().name()+"] received ACTORINFO from ["+ getSender().path().name() +"]");
+		events.log(Event.ACTORINFO, getSender());
+		trace = m.trace == null ? null : m.trace.buffer(id);
+		metrics = m.metrics;
+		coordinator = m.coordinator;
+		reportedDone = false;
 		this.actors = m.actors;
 		this.N = m.length;
 		this.CRASH_PROBABILITY = m.crashProbability;
 		this.BOUND_OF_PROPOSED_NUMBER = m.boundOfProposedNumber;
 		this.ABORT_TIMEOUT = m.abortTimeout;
-		ballot = id - N;
-		proposal = 0;
-		readBallot = 0;
-		imposeBallot = id - N;
-		estimate = 0;
-		states = new Pair[N];
-		for (int i = 0; i < N; i++) {
-			states[i] = new Pair(0, 0);
-		}
-		crashed = false;
+		leaderElectionTimeout = m.leaderElectionTimeout;
+		heartbeatInterval = Math.max(1, m.heartbeatInterval);
+		adaptive = "phi".equals(m.failureDetector);
+		omega = new Omega(id, N, leaderElectionTimeout * 1000000L, heartbeatInterval * 1000000L, adaptive ? m.phiThreshold : 0);
+		random = new Random();
+		paxos = new Paxos(id, N, CRASH_PROBABILITY, ABORT_TIMEOUT * 1000, random);
+		ballot = Ballot.of(0, id);
 		hold = false;
-		receivedStates = 0;
+		ids = new HashMap<>();
+		for (int i = 0; i < N; i++) ids.put(actors[i], i + 1);
+		slotGathers = new Quorum(N);
+		durability = m.durability;
+		mmapForce = m.mmapForce;
+		recoveryDowntime = m.recoveryDowntime;
+		numberOfCommands = m.numberOfCommands;
+		try {
+			openStore(false);
+		} catch (IOException e) {
+			log.error(e, "["+getSelf().path().name()+"] cannot open store");
+		}
+		pipelineDepth = Math.max(1, m.pipelineDepth);
+		batchSize = Math.max(1, m.batchSize);
+		batchTimeout = m.batchTimeout;
+		if (numberOfCommands > 0) {
+			batchSizes = new int[batchSize + 1];
+			windowSlots = new int[pipelineDepth];
+			Arrays.fill(windowSlots, -1);
+			windowValues = new int[pipelineDepth][];
+			windowACKs = new Quorum[pipelineDepth];
+			for (int i = 0; i < pipelineDepth; i++) windowACKs[i] = new Quorum(N);
+			windowTimes = new long[pipelineDepth];
+			slots = new SlotLog();
+			recovered = new SlotLog();
+			pendingCommands = new ArrayDeque<>();
+			received = new BitSet(numberOfCommands);
+			committed = new BitSet(numberOfCommands);
+			applied = new BitSet(numberOfCommands);
+			snapshotInterval = m.snapshotInterval;
+			getContext().become(multiPaxosReceive());
+		}
 	}
 
 	public void receiveLaunchMessage (LaunchMessage m) {
-		log.debug("["+getSelf().path().name()+"] received LAUNCH from ["+ getSender().path().name() +"]");
+		events.log(Event.LAUNCH, getSender());
 		if (!this.launched) {
 			this.launched = true;
 			startTime = System.currentTimeMillis();
 			Random rand = new Random();
 			int proposedNumber = rand.nextInt(BOUND_OF_PROPOSED_NUMBER);
+			trace(Trace.LAUNCH, 0, null, proposedNumber);
 
-			// Propose a value
-			propose(proposedNumber);
+			// Propose a value, every process trusts itself until it hears a lower id
+			if (numberOfCommands > 0) proposeSlots();
+			else propose(proposedNumber);
+			startTicks();
 		}
 	}
 
-	public void receiveCrashMessage (CrashMessage m) {
-		log.debug("["+getSelf().path().name()+"] received CRASH from ["+ getSender().path().name() +"]");
-		this.shouldCrash = true;
+	/**
+	 * @brief Schedules a TICK now and every heartbeatInterval
+	*/
+	private void startTicks() {
+		if (ticks != null) ticks.cancel();
+		ticks = getContext().getSystem().scheduler().schedule(Duration.Zero(), Duration.create(heartbeatInterval, TimeUnit.MILLISECONDS), getSelf(), new TickMessage(), getContext().dispatcher(), getSelf());
+	}
+
+	/**
+	 * @brief Suspects the processes silent for longer than LEADER_ELECTION_TIMEOUT, and sends a heartbeat to every other process while this one is the leader
+	*/
+	public void receiveTickMessage (TickMessage m) {
+		if (paxos.isCrashed()) return;
+		if (omega.tick(System.nanoTime())) leaderChanged();
+		if (omega.isLeader()) {
+			HeartbeatMessage heartbeatMessage = new HeartbeatMessage(id);
+			for (int i = 0; i < N; i++) {
+				if (actors[i] != getSelf()) actors[i].tell(heartbeatMessage, getSelf());
+			}
+			if (metrics != null) metrics.heartbeats(N - 1);
+		}
+	}
+
+	public void receiveHeartbeatMessage (HeartbeatMessage m) {
+		if (paxos.isCrashed()) return;
+		if (omega.heard(m.id, System.nanoTime())) leaderChanged();
+	}
+
+	/**
+	 * @brief Stops proposing when another process becomes the leader, proposes again when this one does
+	 *
+	 * In multi-Paxos the commands not yet decided are forwarded to the new leader, which may have restarted without them.
+	*/
+	private void leaderChanged() {
+		events.log(Event.LEADER, omega.leader());
+		if (metrics != null) metrics.leaderChanged(System.nanoTime());
+		if (!omega.isLeader()) {
+			hold = true;
+			paxos.hold();
+			if (leading) {
+				leading = false;
+				requeueInFlight();
+			}
+			if (numberOfCommands > 0) forwardPending(actors[omega.leader() - 1]);
+			return;
+		}
+		hold = false;
+		if (numberOfCommands > 0) {
+			if (!decided && !leading) proposeSlots();
+		}
+		else {
+			paxos.lead();
+			send();
+		}
 	}
 
-	public void receiveHoldMessage (HoldMessage m) {
-		log.debug("["+getSelf().path().name()+"] received HOLD from ["+ getSender().path().name() +"]");
-		hold = true;
+	public void receiveCrashMessage (CrashMessage m) {
+		events.log(Event.CRASH, getSender());
+		paxos.mayCrash();
 	}
 
 	public void receiveReadMessage (ReadMessage m) {
-		if (crashed) return;
-		log.debug("["+getSelf().path().name()+"] received READ from ["+ getSender().path().name() +"], ballot ["+m.ballot+"]");
-		if (proposeResult >= 0) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+		if (paxos.isCrashed()) return;
+		events.log(Event.READ, getSender(), m.ballot);
+		trace(Trace.READ, m.ballot, getSender(), 0);
+		paxos.onRead(m.ballot);
+		send();
+	}
+
+	public void receiveAbortMessage (AbortMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.ABORT, getSender(), m.ballot, paxos.getMaxAbortBallot());
+		trace(Trace.ABORT, m.ballot, getSender(), 0);
+		replied(m.ballot);
+		paxos.onAbort(m.ballot, m.highestBallot);
+		send();
+	}
+
+	/**
+	 * @brief Samples the round trip of the last READ on its first reply from another process, which sets the backoff base of the adaptive failure detector
+	 * @param ballot The ballot of the GATHER or ABORT
+	*/
+	private void replied(long ballot) {
+		if (ballot != timedBallot || getSender().equals(getSelf())) return;
+		timedBallot = Long.MIN_VALUE;
+		roundTrip.sample(System.nanoTime() - proposeTime);
+		if (adaptive) paxos.setAbortTimeout(backoffBase());
+	}
+
+	/**
+	 * @return The base of the backoff window in us: ABORT_TIMEOUT, or the retransmission timeout of the READs if smaller with the adaptive failure detector
+	*/
+	private int backoffBase() {
+		int base = ABORT_TIMEOUT * 1000;
+		if (adaptive && base > 0 && roundTrip.hasSamples()) base = (int) Math.max(1, Math.min(base, roundTrip.timeout() / 1000));
+		return base;
+	}
+
+	/**
+	 * @brief Re-proposes after the backoff of an ABORT
+	*/
+	public void receiveRetryMessage (RetryMessage m) {
+		if (paxos.isCrashed()) return;
+		paxos.retry(m.ballot);
+		send();
+	}
+
+	/**
+	 * @brief Schedules a RETRY to this process, the delay being rounded up to the tick of the scheduler (10ms by default)
+	 * @param ballot The ballot aborted
+	 * @param delay The backoff, in us
+	*/
+	private void scheduleRetry(long ballot, int delay) {
+		events.log(Event.BACKOFF, delay, ballot);
+		getContext().getSystem().scheduler().scheduleOnce(Duration.create(delay, TimeUnit.MICROSECONDS), getSelf(), new RetryMessage(ballot), getContext().dispatcher(), getSelf());
+	}
+
+	public void receiveGatherMessage (GatherMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.GATHER, getSender(), m.ballot, m.imposeBallot, m.estimate);
+		trace(Trace.GATHER, m.ballot, getSender(), m.estimate);
+		replied(m.ballot);
+		paxos.onGather(senderId(), m.ballot, m.imposeBallot, m.estimate);
+		send();
+	}
+
+	public void receiveImposeMessage (ImposeMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.IMPOSE, getSender(), m.ballot, m.proposal);
+		trace(Trace.IMPOSE, m.ballot, getSender(), m.proposal);
+		paxos.onImpose(m.ballot, m.proposal);
+		send();
+	}
+
+	public void receiveACKMessage (ACKMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.ACK, getSender(), m.ballot);
+		trace(Trace.ACK, m.ballot, getSender(), 0);
+		paxos.onACK(senderId(), m.ballot);
+		send();
+	}
+
+	public void receiveDecideMessage (DecideMessage m) {
+		if (paxos.isCrashed()) return;
+		paxos.onDecide(m.proposal);
+		send();
+	}
+
+	/**
+	 * @brief Runs phase 1 for every slot from the first undecided one
+	*/
+	void proposeSlots() {
+		if (paxos.isCrashed()) return;
+		checkCrash();
+		if (!paxos.isCrashed()) {
+			ballot = Ballot.next(ballot, highestSeenBallot);
+			leading = false;
+			requeueInFlight();
+			slotGathers.start(ballot);
+			readSlot = slots.firstUndecided();
+			recovered.clear();
+			proposeTime = System.nanoTime();
+			timedBallot = ballot;
+			ReadMessage readMessage = new ReadMessage(ballot, readSlot);
+			for (int i = 0; i < N; i++) {
+				actors[i].tell(readMessage, getSelf());
 			}
+			events.log(Event.SLOT_PROPOSED, readSlot, ballot);
+			trace(Trace.PROPOSE, ballot, null, readSlot);
 		}
-		if (!crashed) {
-			if (readBallot > m.ballot || imposeBallot > m.ballot) {
-				getSender().tell(new AbortMessage(m.ballot), getSelf());
+	}
+
+	/**
+	 * @brief Imposes values into the next slots while this process leads and the pipeline window is not full
+	*/
+	private void imposeNext() {
+		while (leading) {
+			while (slots.isDecided(nextSlot)) nextSlot++;
+			if (inFlight == 0) windowBase = nextSlot;
+			if (nextSlot >= windowBase + pipelineDepth) return;
+			int[] value;
+			if (recovered.imposeBallot(nextSlot) > 0) {
+				value = recovered.estimate(nextSlot);
 			}
 			else {
-				readBallot = m.ballot;
-				getSender().tell(new GatherMessage(m.ballot, imposeBallot, estimate), getSelf());
+				value = nextBatch();
+				if (value == null) {
+					if (nextSlot <= recovered.highestAccepted()) value = NO_OP;
+					else return;
+				}
+			}
+			int idx = nextSlot % pipelineDepth;
+			windowSlots[idx] = nextSlot;
+			windowValues[idx] = value;
+			windowACKs[idx].start(ballot);
+			windowTimes[idx] = System.nanoTime();
+			inFlight++;
+			ImposeMessage imposeMessage = new ImposeMessage(ballot, nextSlot, value);
+			for (int i = 0; i < N; i++) {
+				actors[i].tell(imposeMessage, getSelf());
 			}
+			nextSlot++;
 		}
 	}
 
-	public void receiveAbortMessage (AbortMessage m) {
-		if (crashed) return;
-		log.debug("["+getSelf().path().name()+"] received ABORT from ["+ getSender().path().name() +"], ballot ["+m.ballot+"], maxAbortBallot ["+maxAbortBallot+"]");
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
-			}
-		}
-		if (!crashed) {
-			proposeResult = -1;
-			if (!hold) {
-				if (!decided && m.ballot > maxAbortBallot) {
-					log.debug("["+getSelf().path().name()+"] RE-PROPOSE, ballot ["+m.ballot+"], maxAbortBallot ["+maxAbortBallot+"]");
-					maxAbortBallot = m.ballot;
-					propose(proposal);
+	/**
+	 * @brief Takes the next batch of pending commands
+	 * @return null if there is no command, or if the partial batch may still wait for more commands
+	*/
+	private int[] nextBatch() {
+		while (!pendingCommands.isEmpty() && committed.get(pendingCommands.peek())) pendingCommands.poll();
+		if (pendingCommands.isEmpty()) return null;
+		if (pendingCommands.size() < batchSize && batchTimeout > 0) {
+			long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchOpenedAt);
+			if (waited < batchTimeout) {
+				if (!batchTimerScheduled) {
+					batchTimerScheduled = true;
+					getContext().getSystem().scheduler().scheduleOnce(Duration.create(batchTimeout - waited, TimeUnit.MILLISECONDS), getSelf(), new BatchTimeoutMessage(), getContext().dispatcher(), getSelf());
 				}
+				return null;
 			}
 		}
+		int[] batch = new int[Math.min(batchSize, pendingCommands.size())];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = pendingCommands.poll();
+		}
+		batchOpenedAt = System.nanoTime();
+		batchSizes[batch.length]++;
+		return batch;
 	}
 
-	public void receiveGatherMessage (GatherMessage m) {
-		if (crashed) return;
-		log.debug("["+getSelf().path().name()+"] received GATHER from ["+ getSender().path().name() +"], (ballot ["+m.ballot+"], imposeBallot ["+m.imposeBallot+"], estimate ["+m.estimate+"])");
-		if (proposeResult >= 0) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+	/**
+	 * @brief Puts the commands of the slots in flight back in the queue, they may not be decided
+	*/
+	private void requeueInFlight() {
+		for (int slot = nextSlot - 1; inFlight > 0 && slot >= windowBase; slot--) {
+			int idx = slot % pipelineDepth;
+			if (windowSlots[idx] != slot) continue;
+			windowSlots[idx] = -1;
+			inFlight--;
+			for (int i = windowValues[idx].length - 1; i >= 0; i--) {
+				if (!committed.get(windowValues[idx][i])) pendingCommands.addFirst(windowValues[idx][i]);
 			}
 		}
-		if (!crashed) {
-			states[(m.ballot + N) % N].first = m.estimate;
-			states[(m.ballot + N) % N].second = m.imposeBallot;
-			receivedStates++;
-			if (receivedStates > N/2 && !biggerThanHalf) {
-				biggerThanHalf = true;
-				int maxidx = -1;
-				for (int i = 0; i < N; i++) {
-					if (states[i].second > 0) {
-						if (maxidx == -1 || states[i].second > states[maxidx].second) {
-							maxidx = i;
-						}
-					}
-				}
-				if (maxidx != -1) proposal = states[maxidx].first;
-				for (int i = 0; i < N; i++) {
-					states[i].first = 0;
-					states[i].second = 0;
-				}
-				receivedStates = 0;
-				biggerThanHalf = false;
-				for (int i = 0; i < N; i++) {
-					actors[i].tell(new ImposeMessage(ballot, proposal), getSelf());
+		inFlight = 0;
+	}
+
+	/**
+	 * @brief Logs the distribution of the sizes of the batches imposed by this process
+	*/
+	private void logBatchSizes() {
+		int batches = 0, commands = 0;
+		StringBuilder distribution = new StringBuilder();
+		for (int k = 1; k < batchSizes.length; k++) {
+			if (batchSizes[k] == 0) continue;
+			batches += batchSizes[k];
+			commands += k * batchSizes[k];
+			distribution.append(" ").append(k).append(":").append(batchSizes[k]);
+		}
+		if (batches == 0) return;
+		log.info("/!\\ Process ["+id+"] batch size (limit ["+batchSize+"], timeout ["+batchTimeout+"ms], batches ["+batches+"]): mean ["+(commands / batches)+"] distribution ["+distribution.toString().trim()+"]");
+	}
+
+	/**
+	 * @brief Logs the percentiles of the IMPOSE to ACK quorum latency of the slots imposed by this process
+	*/
+	private void logSlotLatencies() {
+		Histogram latencies = phases[Metrics.IMPOSE_ACK];
+		if (latencies.getTotalCount() == 0) return;
+		log.info("/!\\ Process ["+id+"] slot latency (depth ["+pipelineDepth+"], slots ["+latencies.getTotalCount()+"]): p50 ["+latencies.getValueAtPercentile(50) / 1000+"]us p99 ["+latencies.getValueAtPercentile(99) / 1000+"]us max ["+latencies.getMaxValue() / 1000+"]us");
+	}
+
+	/**
+	 * @brief Sends the pending commands not yet decided to the leader, keeping them in case it crashes
+	*/
+	private void forwardPending(ActorRef leader) {
+		for (int command : pendingCommands) {
+			if (!committed.get(command)) leader.tell(new CommandMessage(command), getSelf());
+		}
+	}
+
+	public void receiveCommandMessage (CommandMessage m) {
+		if (paxos.isCrashed() || committed.get(m.command) || received.get(m.command)) return;
+		received.set(m.command);
+		if (pendingCommands.isEmpty()) batchOpenedAt = System.nanoTime();
+		pendingCommands.add(m.command);
+		imposeNext();
+	}
+
+	public void receiveBatchTimeoutMessage (BatchTimeoutMessage m) {
+		if (paxos.isCrashed()) return;
+		batchTimerScheduled = false;
+		imposeNext();
+	}
+
+	public void receiveSlotReadMessage (ReadMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SLOT_READ, getSender(), m.ballot, m.slot);
+		trace(Trace.READ, m.ballot, getSender(), m.slot);
+		checkCrash();
+		if (!paxos.isCrashed()) {
+			Acceptor acceptor = paxos.acceptor();
+			if (!acceptor.read(m.ballot)) {
+				getSender().tell(new AbortMessage(m.ballot, acceptor.highest()), getSelf());
+			}
+			else {
+				persistRead(m.ballot);
+				int from = m.slot;
+				if (from < slots.base()) {
+					// The proposer lags behind the compacted slots, it gets the snapshot before the GATHER
+					sendSnapshot(getSender());
+					from = slots.base();
 				}
+				replyDurably(new GatherMessage(m.ballot, from, slots.imposeBallotsFrom(from), slots.estimatesFrom(from)));
 			}
 		}
 	}
 
-	public void receiveImposeMessage (ImposeMessage m) {
-		if (crashed) return;
-		log.debug("["+getSelf().path().name()+"] received IMPOSE from ["+ getSender().path().name() +"], (ballot ["+m.ballot+"], proposal ["+m.proposal+"])");
-		if (proposeResult >= 0) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+	public void receiveSlotAbortMessage (AbortMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.ABORT, getSender(), m.ballot, maxAbortBallot);
+		trace(Trace.ABORT, m.ballot, getSender(), 0);
+		replied(m.ballot);
+		checkCrash();
+		if (!paxos.isCrashed() && m.highestBallot > highestSeenBallot) highestSeenBallot = m.highestBallot;
+		if (!paxos.isCrashed() && m.ballot == ballot && m.ballot > maxAbortBallot) {
+			maxAbortBallot = m.ballot;
+			leading = false;
+			requeueInFlight();
+			if (!hold && !decided) {
+				events.log(Event.SLOT_REPROPOSE, m.ballot);
+				slotAborts++;
+				int base = backoffBase();
+				if (base == 0) proposeSlots();
+				else scheduleRetry(ballot, Paxos.backoff(base, slotAborts, random));
 			}
 		}
-		if (!crashed) {
-			if (readBallot > m.ballot || imposeBallot > m.ballot) {
-				getSender().tell(new AbortMessage(m.ballot), getSelf());
+	}
+
+	/**
+	 * @brief Runs phase 1 again after the backoff of an ABORT, unless this process proposed or stopped proposing meanwhile
+	*/
+	public void receiveSlotRetryMessage (RetryMessage m) {
+		if (paxos.isCrashed() || m.ballot != ballot || leading || hold || decided) return;
+		proposeSlots();
+	}
+
+	public void receiveSlotGatherMessage (GatherMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SLOT_GATHER, getSender(), m.ballot, m.slot, m.imposeBallots.length);
+		trace(Trace.GATHER, m.ballot, getSender(), m.slot);
+		replied(m.ballot);
+		checkCrash();
+		if (!paxos.isCrashed() && !leading && slotGathers.add(m.ballot, senderId())) {
+			for (int i = 0; i < m.imposeBallots.length; i++) {
+				if (m.imposeBallots[i] > recovered.imposeBallot(m.slot + i)) {
+					recovered.accept(m.slot + i, m.imposeBallots[i], m.estimates[i]);
+				}
 			}
-			else {
-				estimate = m.proposal;
-				imposeBallot = m.ballot;
-				getSender().tell(new ACKMessage(m.ballot), getSelf());
+			if (slotGathers.justReached()) {
+				slotAborts = 0;
+				leading = true;
+				nextSlot = Math.max(readSlot, slots.base());
+				phases[Metrics.PROPOSE_GATHER].recordValue(System.nanoTime() - proposeTime);
+				events.log(Event.LEADS, readSlot, ballot);
+				imposeNext();
 			}
 		}
 	}
 
-	public void receiveACKMessage (ACKMessage m) {
-		if (crashed) return;
-		log.debug("["+getSelf().path().name()+"] received ACK from ["+ getSender().path().name() +"], ballot ["+m.ballot+"]");
-		if (proposeResult >= 0) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+	public void receiveSlotImposeMessage (ImposeMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SLOT_IMPOSE, getSender(), m.ballot, m.slot, m.batch.length);
+		trace(Trace.IMPOSE, m.ballot, getSender(), m.slot);
+		checkCrash();
+		if (!paxos.isCrashed()) {
+			Acceptor acceptor = paxos.acceptor();
+			if (!acceptor.impose(m.ballot)) {
+				getSender().tell(new AbortMessage(m.ballot, acceptor.highest()), getSelf());
+			}
+			else if (m.slot < slots.base()) {
+				// The slot is decided and compacted, the leader learns it from the snapshot
+				sendSnapshot(getSender());
+			}
+			else {
+				slots.accept(m.slot, m.ballot, m.batch);
+				persistImpose(m.slot, m.ballot, m.batch);
+				replyDurably(new ACKMessage(m.ballot, m.slot));
 			}
 		}
-		if (!crashed) {
-			ACKnum++;
-			if (ACKnum > N/2 && !ACKconfirmed) {
-				ACKconfirmed = true;
-				endTime = System.currentTimeMillis();
-				decided = true;
-				log.info("/!\\ Total time for the Process ["+id+"] to decide (value ["+proposal+"] ballot ["+ballot+"]): " + (endTime - startTime) + "ms");
+	}
+
+	public void receiveSlotACKMessage (ACKMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SLOT_ACK, getSender(), m.ballot, m.slot);
+		trace(Trace.ACK, m.ballot, getSender(), m.slot);
+		checkCrash();
+		if (!paxos.isCrashed() && leading && m.ballot == ballot) {
+			int idx = m.slot % pipelineDepth;
+			if (windowSlots[idx] != m.slot || !windowACKs[idx].add(m.ballot, senderId())) return;
+			if (windowACKs[idx].justReached()) {
+				long now = System.nanoTime();
+				phases[Metrics.IMPOSE_ACK].recordValue(now - windowTimes[idx]);
+				if (metrics != null) metrics.decided(m.slot, now);
+				windowSlots[idx] = -1;
+				inFlight--;
+				while (windowBase < nextSlot && windowSlots[windowBase % pipelineDepth] != windowBase) windowBase++;
+				DecideMessage decideMessage = new DecideMessage(m.slot, windowValues[idx]);
 				for (int i = 0; i < N; i++) {
-					actors[i].tell(new DecideMessage(proposal), getSelf());
+					actors[i].tell(decideMessage, getSelf());
 				}
+				imposeNext();
 			}
 		}
 	}
 
-	public void receiveDecideMessage (DecideMessage m) {
-		if (crashed) return;
-		if (shouldCrash) {
-			double r = Math.random();
-			if (r < CRASH_PROBABILITY) {
-				log.debug("["+getSelf().path().name()+"] crashed");
-				crashed = true;
+	public void receiveSlotDecideMessage (DecideMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SLOT_DECIDE, getSender(), m.slot, m.batch.length);
+		trace(Trace.SLOT_DECIDE, 0, getSender(), m.slot);
+		checkCrash();
+		if (!paxos.isCrashed()) {
+			if (!slots.isDecided(m.slot)) recordPropagation(m.slot);
+			applyBatch(m.slot, m.batch);
+		}
+	}
+
+	/**
+	 * @brief Records the time since the ACK quorum of the slot, if it was reached in this JVM
+	*/
+	private void recordPropagation(int slot) {
+		long decideTime = metrics == null ? 0 : metrics.decideTime(slot);
+		if (decideTime > 0) phases[Metrics.DECIDE_PROPAGATION].recordValue(Math.max(0, System.nanoTime() - decideTime));
+	}
+
+	/**
+	 * @brief Learns the batch decided in a slot
+	 * @param slot The slot index
+	 * @param batch The decided batch
+	*/
+	private void applyBatch(int slot, int[] batch) {
+		if (!slots.decide(slot, batch)) return;
+		for (int command : batch) committed.set(command);
+		int bucket = (int) ((System.currentTimeMillis() - startTime) / THROUGHPUT_BUCKET);
+		if (bucket >= decidedPerBucket.length) decidedPerBucket = Arrays.copyOf(decidedPerBucket, Math.max(bucket + 1, decidedPerBucket.length * 2));
+		decidedPerBucket[bucket] += batch.length;
+		applyDecided();
+	}
+
+	/**
+	 * @brief Applies the decided slots in order, skipping the commands a previous leader already had decided, and takes a snapshot every snapshotInterval slots
+	*/
+	private void applyDecided() {
+		while (appliedSlot < slots.firstUndecided()) {
+			for (int command : slots.value(appliedSlot)) {
+				if (applied.get(command)) continue;
+				applied.set(command);
+				appliedCount++;
+				digest = digest * 31 + command;
 			}
+			appliedSlot++;
 		}
-		if (!crashed) {
-			proposeResult = m.proposal;
-			this.decided = true;
+		if (snapshotInterval > 0 && appliedSlot - slots.base() >= snapshotInterval) {
+			takeSnapshot();
+		}
+		if (!decided && appliedCount == numberOfCommands) {
+			decided = true;
+			endTime = System.currentTimeMillis();
+			long elapsed = Math.max(1, endTime - startTime);
+			log.info("/!\\ Process ["+id+"] applied ["+numberOfCommands+"] commands in ["+slots.firstUndecided()+"] slots: " + elapsed + "ms (" + (numberOfCommands * 1000L / elapsed) + " commands/s) digest ["+Long.toHexString(digest)+"]");
+			logSlotLatencies();
+			logBatchSizes();
+			logThroughputTimeline();
+			reportDone(false);
 		}
-		log.info("/!\\ ["+getSelf().path().name()+"] received DECIDE from ["+ getSender().path().name() +"], proposal ["+proposeResult+"]");
 	}
 
-	public class Pair {
-		public int first, second;
+	private Path snapshotPath() {
+		return Paths.get("wal", getSelf().path().name() + ".snapshot");
+	}
 
-		public Pair(int first, int second) {
-			this.first = first;
-			this.second = second;
+	/**
+	 * @brief Snapshots the applied state and drops the slots it covers from memory and from the write-ahead log
+	*/
+	private void takeSnapshot() {
+		snapshot = new Snapshot(appliedSlot, applied.toLongArray(), appliedCount, digest);
+		slots.truncate(appliedSlot);
+		persistSnapshot();
+		events.log(Event.SNAPSHOT_TAKEN, appliedSlot);
+	}
+
+	private void persistSnapshot() {
+		if (slotStore == null) return;
+		try {
+			snapshot.write(snapshotPath());
+			slotStore.compact(paxos.acceptor().readBallot(), slots);
+		} catch (IOException e) {
+			storeFailure(e);
+		}
+	}
+
+	/**
+	 * @brief Replaces the applied state by the snapshot and drops the slots it covers
+	 * @param s The snapshot
+	*/
+	private void restoreSnapshot(Snapshot s) {
+		applied = BitSet.valueOf(s.applied);
+		appliedCount = s.appliedCount;
+		appliedSlot = s.slot;
+		digest = s.digest;
+		committed.or(applied);
+		slots.truncate(s.slot);
+	}
+
+	private void sendSnapshot(ActorRef receiver) {
+		receiver.tell(new SnapshotMessage(snapshot.slot, snapshot.applied, snapshot.appliedCount, snapshot.digest), getSelf());
+	}
+
+	public void receiveSnapshotMessage (SnapshotMessage m) {
+		if (paxos.isCrashed()) return;
+		events.log(Event.SNAPSHOT, getSender(), m.slot);
+		if (m.slot <= appliedSlot) return;
+		snapshot = new Snapshot(m.slot, m.applied, m.appliedCount, m.digest);
+		restoreSnapshot(snapshot);
+		// Slots of the window below the snapshot are decided, their commands are either applied or imposed again
+		for (int idx = 0; idx < pipelineDepth; idx++) {
+			if (windowSlots[idx] < 0 || windowSlots[idx] >= m.slot) continue;
+			windowSlots[idx] = -1;
+			inFlight--;
+			for (int command : windowValues[idx]) {
+				if (!committed.get(command)) pendingCommands.addFirst(command);
+			}
+		}
+		if (nextSlot < m.slot) nextSlot = m.slot;
+		if (windowBase < m.slot) windowBase = m.slot;
+		while (windowBase < nextSlot && windowSlots[windowBase % pipelineDepth] != windowBase) windowBase++;
+		persistSnapshot();
+		applyDecided();
+		imposeNext();
+	}
+
+	/**
+	 * @brief Logs the commands decided in every THROUGHPUT_BUCKET, on the leader only, to show the dip while processes recover
+	*/
+	private void logThroughputTimeline() {
+		if (phases[Metrics.IMPOSE_ACK].getTotalCount() == 0) return;
+		int buckets = (int) ((endTime - startTime) / THROUGHPUT_BUCKET) + 1;
+		StringBuilder timeline = new StringBuilder();
+		for (int i = 0; i < buckets && i < decidedPerBucket.length; i++) {
+			timeline.append(" ").append(decidedPerBucket[i]);
 		}
+		log.info("/!\\ Process ["+id+"] throughput timeline (commands per ["+THROUGHPUT_BUCKET+"ms]): ["+timeline.toString().trim()+"]");
 	}
 }
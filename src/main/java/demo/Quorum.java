@@ -0,0 +1,75 @@
+/**
+ * @file Quorum.java
+ * @brief File containing the count of the replies to one ballot
+*/
+package demo;
+
+import java.util.Arrays;
+
+/**
+ * @class Quorum
+ * @brief Replies of distinct processes to the current ballot, each process counted once, restarted in O(1) for the next ballot
+ *
+ * stamps[j] is the epoch of the last ballot process j was counted in: start() only increments the epoch instead of clearing N flags,
+ * and a duplicate or a reply to another ballot is not counted.
+*/
+public final class Quorum {
+	private final int N;
+	private final int[] stamps;
+	private int epoch = 0;
+	private long ballot;
+	private int count = 0;
+	private boolean counting = false;
+
+	/**
+	 * @param N The number of processes, identified from 1 to N
+	*/
+	public Quorum(int N) {
+		this.N = N;
+		stamps = new int[N + 1];
+	}
+
+	/**
+	 * @brief Forgets the replies counted so far and counts those to ballot from now on
+	*/
+	public void start(long ballot) {
+		if (++epoch == 0) {
+			// The stamps of 2^32 ballots ago would look current
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+		this.ballot = ballot;
+		count = 0;
+		counting = true;
+	}
+
+	/**
+	 * @brief Counts no reply until the next start()
+	*/
+	public void stop() {
+		counting = false;
+	}
+
+	/**
+	 * @param ballot The ballot of the reply
+	 * @param sender The sender of the reply, from 1 to N
+	 * @return true if the reply is the first of the sender to the current ballot
+	*/
+	public boolean add(long ballot, int sender) {
+		if (!counting || ballot != this.ballot || sender < 1 || sender > N || stamps[sender] == epoch) return false;
+		stamps[sender] = epoch;
+		count++;
+		return true;
+	}
+
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @return true if the last reply counted made a majority, once per ballot
+	*/
+	public boolean justReached() {
+		return count == N / 2 + 1;
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * @file RoundTrip.java
+ * @brief File containing the round-trip time estimator of a proposer
+*/
+package demo;
+
+/**
+ * @class RoundTrip
+ * @brief Smoothed round-trip time of the READs of a proposer and its mean deviation (Jacobson/Karels), sampled on the first reply of another process to each READ
+ *
+ * With the adaptive failure detector, timeout() replaces ABORT_TIMEOUT as the base of the backoff window after an ABORT when it is smaller.
+*/
+public final class RoundTrip {
+	private double srtt = -1, rttvar = 0; // ns, srtt < 0 before the first sample
+
+	/**
+	 * @param rtt The time from the READ to its first reply from another process, in ns
+	*/
+	public void sample(long rtt) {
+		if (srtt < 0) {
+			srtt = rtt;
+			rttvar = rtt / 2.0;
+		}
+		else {
+			rttvar = 0.75 * rttvar + 0.25 * Math.abs(srtt - rtt);
+			srtt = 0.875 * srtt + 0.125 * rtt;
+		}
+	}
+
+	public boolean hasSamples() {
+		return srtt >= 0;
+	}
+
+	/**
+	 * @return srtt + 4 rttvar, in ns
+	*/
+	public long timeout() {
+		return (long) (srtt + 4 * rttvar);
+	}
+}
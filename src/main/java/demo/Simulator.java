@@ -0,0 +1,452 @@
+/**
+ * @file Simulator.java
+ * @brief File containing the deterministic discrete-event simulation of single-decree Paxos
+*/
+package demo;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import demo.Main.*;
+
+/**
+ * @class Simulator
+ * @brief Runs the processes in virtual time: a priority queue of deliveries ordered by time, one seeded RNG and a latency distribution per link
+ *
+ * The processes run the Paxos state machine and the Omega leader detector of Process and exchange the messages of Main, with the driver of Main as process 0.
+ * A run ends when every process has decided or crashed, as with the coordinator of Main, or at DEADLINE.
+ * A configuration run twice with the same seed gives the same events in the same order, so its results are identical.
+*/
+public class Simulator {
+	static final int DRIVER = 0;
+	static final long DEADLINE = 10_000_000_000L; // ns of virtual time, the default TERMINATION_DEADLINE of Main
+
+	/**
+	 * @class Latency
+	 * @brief Delay of a link in ns: const:<us>, uniform:<min us>:<max us> or exp:<min us>:<mean us>, the exponential part added to the minimum
+	*/
+	public static final class Latency {
+		final String kind;
+		final long min, max; // ns, max holds the mean of exp
+
+		public Latency(String spec) {
+			String[] parts = spec.trim().split(":");
+			kind = parts[0];
+			switch (kind) {
+				case "const":
+					min = max = (long) (Double.parseDouble(parts[1]) * 1000);
+					break;
+				case "uniform":
+				case "exp":
+					min = (long) (Double.parseDouble(parts[1]) * 1000);
+					max = (long) (Double.parseDouble(parts[2]) * 1000);
+					break;
+				default:
+					throw new IllegalArgumentException("unknown latency " + spec);
+			}
+		}
+
+		long sample(Random rand) {
+			switch (kind) {
+				case "uniform": return min + (long) (rand.nextDouble() * (max - min));
+				case "exp": return min + (long) (-Math.log(1 - rand.nextDouble()) * max);
+				default: return min;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return kind.equals("const") ? kind + ":" + min / 1000.0 : kind + ":" + min / 1000.0 + ":" + max / 1000.0;
+		}
+	}
+
+	/**
+	 * @class Delivery
+	 * @brief A message arriving at a process, or handled by it once arrived, ties on the time are broken by the order of scheduling
+	*/
+	static final class Delivery implements Comparable<Delivery> {
+		final long time, seq;
+		final int from, to;
+		final Object message;
+		final boolean arrived;
+
+		Delivery(long time, long seq, int from, int to, Object message, boolean arrived) {
+			this.time = time;
+			this.seq = seq;
+			this.from = from;
+			this.to = to;
+			this.message = message;
+			this.arrived = arrived;
+		}
+
+		@Override
+		public int compareTo(Delivery o) {
+			return time != o.time ? Long.compare(time, o.time) : Long.compare(seq, o.seq);
+		}
+	}
+
+	/**
+	 * @class Result
+	 * @brief Outcome of one simulated run
+	*/
+	public static final class Result {
+		public long firstDecision = -1; // ns of virtual time from the launch, -1 if no process decided
+		public int decidedValue = -1;
+		public int decidedProcesses = 0, crashedProcesses = 0;
+		public boolean consistent = true;
+		public long messages = 0, aborts = 0, ballots = 0;
+		public long heartbeats = 0, leaderChanges = 0; // Heartbeats are counted in messages too
+		public long stableLeader = 0; // ns of virtual time of the last leader change at any process
+		public long endTime = 0; // ns of virtual time of the end of the run
+	}
+
+	private final int N;
+	private final Random rand;
+	private final Latency latency;
+	private final Map<Long, Latency> links = new HashMap<>();
+	private final long serviceTime; // ns a process spends on each message, its replies leave when it is done
+	private int abortTimeout = 0; // us, base of the backoff window after an ABORT
+	private final PriorityQueue<Delivery> queue = new PriorityQueue<>();
+	private final Paxos[] processes;
+	private final Omega[] omegas;
+	private final boolean[] launched, done;
+	private final long[] busyUntil, nextTick;
+	private int doneProcesses = 0;
+	private long heartbeatInterval = 10_000_000; // ns
+	private double phiThreshold = 0; // Phi accrual suspicion and backoff from the round-trip times if positive, fixed timeout otherwise
+	private final RoundTrip[] roundTrips;
+	private final long[] proposeTime;
+	private final long[] timedBallot; // Ballot of the READ of each process waiting for its first reply
+	private int bound;
+	private final Result result = new Result();
+	private long now = 0, seq = 0;
+
+	/**
+	 * @param N The number of processes
+	 * @param seed The seed of every random choice of the run
+	 * @param latency The latency of every link without its own
+	 * @param serviceTime The time a process spends on each message, in ns
+	*/
+	public Simulator(int N, long seed, Latency latency, long serviceTime) {
+		this.N = N;
+		this.rand = new Random(seed);
+		this.latency = latency;
+		this.serviceTime = serviceTime;
+		processes = new Paxos[N + 1];
+		omegas = new Omega[N + 1];
+		launched = new boolean[N + 1];
+		done = new boolean[N + 1];
+		busyUntil = new long[N + 1];
+		nextTick = new long[N + 1];
+		roundTrips = new RoundTrip[N + 1];
+		proposeTime = new long[N + 1];
+		timedBallot = new long[N + 1];
+	}
+
+	/**
+	 * @brief Sets the base of the backoff window of the processes after an ABORT, 0 to re-propose at once
+	 * @param abortTimeout ABORT_TIMEOUT, in ms
+	*/
+	public void setAbortTimeout(int abortTimeout) {
+		this.abortTimeout = abortTimeout * 1000;
+	}
+
+	/**
+	 * @brief Sets the period of the heartbeats and of the suspicion checks of the processes
+	 * @param heartbeatInterval HEARTBEAT_INTERVAL, in ms
+	*/
+	public void setHeartbeatInterval(int heartbeatInterval) {
+		this.heartbeatInterval = Math.max(1, heartbeatInterval) * 1_000_000L;
+	}
+
+	/**
+	 * @brief Sets the failure detector of the processes
+	 * @param failureDetector FAILURE_DETECTOR, fixed or phi
+	 * @param phiThreshold PHI_THRESHOLD
+	*/
+	public void setFailureDetector(String failureDetector, double phiThreshold) {
+		this.phiThreshold = "phi".equals(failureDetector) ? phiThreshold : 0;
+	}
+
+	/**
+	 * @brief Sets the latency of the link from a process to another, 0 being the driver
+	*/
+	public void setLatency(int from, int to, Latency l) {
+		links.put((long) from << 32 | to, l);
+	}
+
+	void send(int from, int to, Object message) {
+		Latency l = links.getOrDefault((long) from << 32 | to, latency);
+		long departure = from == DRIVER ? now : now + serviceTime;
+		queue.add(new Delivery(departure + l.sample(rand), seq++, from, to, message, false));
+		result.messages++;
+	}
+
+	/**
+	 * @brief Runs the scenario of Main: LAUNCH to every process and CRASH to f of them, the processes electing their leader
+	 * @param f The number of processes told to crash
+	 * @param crashProbability The probability, alpha, that a process told to crash crashes on each message
+	 * @param leaderElectionTimeout t_le, the suspicion timeout of the leader detector, in ms
+	 * @param bound The bound of the proposed values
+	*/
+	public Result run(int f, double crashProbability, int leaderElectionTimeout, int bound) {
+		this.bound = bound;
+		for (int i = 1; i <= N; i++) {
+			processes[i] = new Paxos(i, N, crashProbability, abortTimeout, rand);
+			omegas[i] = new Omega(i, N, leaderElectionTimeout * 1_000_000L, heartbeatInterval, phiThreshold);
+			roundTrips[i] = new RoundTrip();
+			timedBallot[i] = Long.MIN_VALUE;
+		}
+		for (int i = 1; i <= N; i++) send(DRIVER, i, new LaunchMessage());
+		List<Integer> crashList = new ArrayList<>();
+		for (int i = 1; i <= N; i++) crashList.add(i);
+		Collections.shuffle(crashList, rand);
+		for (int i = 0; i < f; i++) send(DRIVER, crashList.get(i), new CrashMessage());
+
+		while (!queue.isEmpty()) {
+			Delivery d = queue.poll();
+			if (d.time > DEADLINE) break;
+			now = d.time;
+			if (!d.arrived) {
+				// The mailbox is FIFO: the message is handled once the process is done with the messages arrived before it
+				long start = Math.max(now, busyUntil[d.to]);
+				busyUntil[d.to] = start + serviceTime;
+				queue.add(new Delivery(start, seq++, d.from, d.to, d.message, true));
+				continue;
+			}
+			receive(d.to, d.from, d.message);
+			if (!done[d.to] && (processes[d.to].isDecided() || processes[d.to].isCrashed())) {
+				done[d.to] = true;
+				if (++doneProcesses == N) break;
+			}
+		}
+		result.endTime = now;
+		for (int i = 1; i <= N; i++) {
+			if (processes[i].isCrashed()) result.crashedProcesses++;
+			if (processes[i].isDecided()) result.decidedProcesses++;
+		}
+		return result;
+	}
+
+	/**
+	 * @brief Hands a delivered message to the state machine of its process and sends the outputs
+	*/
+	private void receive(int to, int from, Object m) {
+		Paxos p = processes[to];
+		if (m instanceof ReadMessage) p.onRead(((ReadMessage) m).ballot);
+		else if (m instanceof AbortMessage) {
+			if (!p.isCrashed()) result.aborts++;
+			AbortMessage a = (AbortMessage) m;
+			replied(to, from, a.ballot);
+			p.onAbort(a.ballot, a.highestBallot);
+		}
+		else if (m instanceof GatherMessage) {
+			GatherMessage g = (GatherMessage) m;
+			replied(to, from, g.ballot);
+			p.onGather(from, g.ballot, g.imposeBallot, g.estimate);
+		}
+		else if (m instanceof ImposeMessage) p.onImpose(((ImposeMessage) m).ballot, ((ImposeMessage) m).proposal);
+		else if (m instanceof ACKMessage) p.onACK(from, ((ACKMessage) m).ballot);
+		else if (m instanceof DecideMessage) p.onDecide(((DecideMessage) m).proposal);
+		else if (m instanceof RetryMessage) p.retry(((RetryMessage) m).ballot);
+		else if (m instanceof LaunchMessage) {
+			if (launched[to]) return;
+			launched[to] = true;
+			p.propose(rand.nextInt(bound));
+			// The first TICK is due at once, like the timer of Process
+			nextTick[to] = now;
+			queue.add(new Delivery(now, seq++, to, to, new TickMessage(), false));
+		}
+		else if (m instanceof TickMessage) {
+			if (p.isCrashed()) return;
+			nextTick[to] += heartbeatInterval;
+			queue.add(new Delivery(nextTick[to], seq++, to, to, m, false));
+			boolean changed = omegas[to].tick(now);
+			if (omegas[to].isLeader()) {
+				HeartbeatMessage heartbeatMessage = new HeartbeatMessage(to);
+				for (int i = 1; i <= N; i++) {
+					if (i != to) send(to, i, heartbeatMessage);
+				}
+				result.heartbeats += N - 1;
+			}
+			if (!changed || !leaderChanged(to)) return;
+		}
+		else if (m instanceof HeartbeatMessage) {
+			if (p.isCrashed() || !omegas[to].heard(from, now) || !leaderChanged(to)) return;
+		}
+		else if (m instanceof CrashMessage) {
+			p.mayCrash();
+			return;
+		}
+		Paxos.Outputs out = p.out;
+		for (int k = 0; k < out.size(); k++) {
+			long ballot = out.ballot(k);
+			int value = out.value(k);
+			switch (out.kind(k)) {
+				case Paxos.Outputs.READ: {
+					result.ballots++;
+					proposeTime[to] = now;
+					timedBallot[to] = ballot;
+					ReadMessage readMessage = new ReadMessage(ballot);
+					for (int i = 1; i <= N; i++) send(to, i, readMessage);
+					break;
+				}
+				case Paxos.Outputs.GATHER:
+					send(to, from, new GatherMessage(ballot, out.extra(k), value));
+					break;
+				case Paxos.Outputs.IMPOSE: {
+					ImposeMessage imposeMessage = new ImposeMessage(ballot, value);
+					for (int i = 1; i <= N; i++) send(to, i, imposeMessage);
+					break;
+				}
+				case Paxos.Outputs.ACK:
+					send(to, from, new ACKMessage(ballot));
+					break;
+				case Paxos.Outputs.ABORT:
+					send(to, from, new AbortMessage(ballot, out.extra(k)));
+					break;
+				case Paxos.Outputs.DECIDE: {
+					if (result.firstDecision < 0) result.firstDecision = now;
+					DecideMessage decideMessage = new DecideMessage(value);
+					for (int i = 1; i <= N; i++) send(to, i, decideMessage);
+					break;
+				}
+				case Paxos.Outputs.BACKOFF:
+					// The RETRY the process sends itself joins its mailbox once the backoff is over
+					queue.add(new Delivery(now + serviceTime + value, seq++, to, to, new RetryMessage(ballot), false));
+					break;
+				case Paxos.Outputs.LEARNED:
+					if (result.decidedValue == -1) result.decidedValue = value;
+					else if (result.decidedValue != value) result.consistent = false;
+					break;
+			}
+		}
+	}
+
+	/**
+	 * @brief Samples the round trip of the last READ of a process on its first reply from another process, like Process
+	*/
+	private void replied(int to, int from, long ballot) {
+		if (ballot != timedBallot[to] || from == to || processes[to].isCrashed()) return;
+		timedBallot[to] = Long.MIN_VALUE;
+		roundTrips[to].sample(now - proposeTime[to]);
+		if (phiThreshold > 0 && abortTimeout > 0) processes[to].setAbortTimeout((int) Math.max(1, Math.min(abortTimeout, roundTrips[to].timeout() / 1000)));
+	}
+
+	/**
+	 * @brief Stops proposing when another process becomes the leader, proposes again when this one does
+	 * @return true if the process proposed, its outputs are to be sent
+	*/
+	private boolean leaderChanged(int to) {
+		result.leaderChanges++;
+		result.stableLeader = now;
+		if (!omegas[to].isLeader()) {
+			processes[to].hold();
+			return false;
+		}
+		processes[to].lead();
+		return true;
+	}
+
+	/**
+	 * @brief Runs the sweep of run.bat in virtual time and writes summary/simulation.txt
+	 * @param args KEY=value overrides: SEED, LATENCY (const:<us>, uniform:<min>:<max> or exp:<min>:<mean>), SERVICE_TIME (us),
+	 * REPETITIONS, LINK=<from>,<to>,<latency> (repeatable), ABORT_TIMEOUT and HEARTBEAT_INTERVAL (ms), FAILURE_DETECTOR and PHI_THRESHOLD (param.txt by default),
+	 * and N, CRASH_PROBABILITY, LEADER_ELECTION_TIMEOUT to run a single point
+	*/
+	public static void main(String[] args) throws IOException {
+		long seed = 42;
+		Latency latency = new Latency("exp:20:80");
+		double serviceTime = 5;
+		int repetitions = 1;
+		int bound = 2;
+		int abortTimeout = 0;
+		int heartbeatInterval = 10;
+		String failureDetector = "fixed";
+		double phiThreshold = 8;
+		List<String[]> links = new ArrayList<>();
+		int[] ns = {3, 10, 50, 100};
+		double[] alphas = {0, 0.1, 0.5, 1};
+		int[] tles = {10, 50, 100, 500, 1000};
+
+		try (BufferedReader reader = new BufferedReader(new FileReader("param.txt"))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.split("=");
+				if (parts.length == 2 && parts[0].trim().equals("BOUND_OF_PROPOSED_NUMBER")) bound = Integer.parseInt(parts[1].trim());
+				if (parts.length == 2 && parts[0].trim().equals("ABORT_TIMEOUT")) abortTimeout = Integer.parseInt(parts[1].trim());
+				if (parts.length == 2 && parts[0].trim().equals("HEARTBEAT_INTERVAL")) heartbeatInterval = Integer.parseInt(parts[1].trim());
+				if (parts.length == 2 && parts[0].trim().equals("FAILURE_DETECTOR")) failureDetector = parts[1].trim();
+				if (parts.length == 2 && parts[0].trim().equals("PHI_THRESHOLD")) phiThreshold = Double.parseDouble(parts[1].trim());
+			}
+		} catch (IOException e) {
+			System.err.println("param.txt not found, BOUND_OF_PROPOSED_NUMBER = " + bound);
+		}
+		for (String arg : args) {
+			String[] parts = arg.split("=", 2);
+			switch (parts[0]) {
+				case "SEED": seed = Long.parseLong(parts[1]); break;
+				case "LATENCY": latency = new Latency(parts[1]); break;
+				case "SERVICE_TIME": serviceTime = Double.parseDouble(parts[1]); break;
+				case "REPETITIONS": repetitions = Integer.parseInt(parts[1]); break;
+				case "LINK": links.add(parts[1].split(",", 3)); break;
+				case "ABORT_TIMEOUT": abortTimeout = Integer.parseInt(parts[1]); break;
+				case "HEARTBEAT_INTERVAL": heartbeatInterval = Integer.parseInt(parts[1]); break;
+				case "FAILURE_DETECTOR": failureDetector = parts[1]; break;
+				case "PHI_THRESHOLD": phiThreshold = Double.parseDouble(parts[1]); break;
+				case "N": ns = new int[] {Integer.parseInt(parts[1])}; break;
+				case "CRASH_PROBABILITY": alphas = new double[] {Double.parseDouble(parts[1])}; break;
+				case "LEADER_ELECTION_TIMEOUT": tles = new int[] {Integer.parseInt(parts[1])}; break;
+				default: throw new IllegalArgumentException("unknown parameter " + arg);
+			}
+		}
+
+		long start = System.nanoTime();
+		long digest = 17;
+		int runs = 0;
+		long aborts = 0, decisions = 0;
+		double firstDecisions = 0;
+		try (PrintWriter out = new PrintWriter("summary/simulation.txt")) {
+			out.println("SEED = " + seed + ", LATENCY = " + latency + ", SERVICE_TIME = " + serviceTime + "us, REPETITIONS = " + repetitions + ", ABORT_TIMEOUT = " + abortTimeout + "ms, HEARTBEAT_INTERVAL = " + heartbeatInterval + "ms, FAILURE_DETECTOR = " + failureDetector + ", PHI_THRESHOLD = " + phiThreshold);
+			out.println("alpha\tN\tf\ttle\trun\tfirst decision (ms)\tvalue\tdecided\tcrashed\tballots\taborts\tmessages\tconsistent\tstable leader (ms)\tleader changes\theartbeats\tend (ms)");
+			for (double alpha : alphas) {
+				for (int N : ns) {
+					for (int tle : tles) {
+						int f = (N + 1) / 2 - 1;
+						for (int r = 0; r < repetitions; r++) {
+							// Every run has its own seed, so a run does not depend on the runs before it
+							long runSeed = seed * 1_000_003L + runs;
+							Simulator sim = new Simulator(N, runSeed, latency, (long) (serviceTime * 1000));
+							for (String[] link : links) sim.setLatency(Integer.parseInt(link[0]), Integer.parseInt(link[1]), new Latency(link[2]));
+							sim.setAbortTimeout(abortTimeout);
+							sim.setHeartbeatInterval(heartbeatInterval);
+							sim.setFailureDetector(failureDetector, phiThreshold);
+							Result res = sim.run(f, alpha, tle, bound);
+							aborts += res.aborts;
+							if (res.firstDecision >= 0) {
+								decisions++;
+								firstDecisions += res.firstDecision / 1e6;
+							}
+							String row = alpha + "\t" + N + "\t" + f + "\t" + tle + "\t" + r + "\t" + (res.firstDecision < 0 ? "-" : String.format("%.3f", res.firstDecision / 1e6)) + "\t" + res.decidedValue + "\t" + res.decidedProcesses + "\t" + res.crashedProcesses + "\t" + res.ballots + "\t" + res.aborts + "\t" + res.messages + "\t" + res.consistent
+								+ "\t" + String.format("%.3f", res.stableLeader / 1e6) + "\t" + res.leaderChanges + "\t" + res.heartbeats + "\t" + String.format("%.3f", res.endTime / 1e6);
+							out.println(row);
+							digest = 31 * digest + row.hashCode();
+							runs++;
+						}
+					}
+				}
+			}
+		}
+		System.out.println("/!\\ simulated [" + runs + "] runs in [" + (System.nanoTime() - start) / 1000000 + "ms], results digest [" + Long.toHexString(digest) + "], written to summary/simulation.txt");
+		System.out.println(String.format("/!\\ ABORT_TIMEOUT [%dms], FAILURE_DETECTOR [%s]: [%d] ABORTs, [%d] runs decided, mean first decision [%.3fms]", abortTimeout, failureDetector, aborts, decisions, decisions == 0 ? 0 : firstDecisions / decisions));
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * @file SlotLog.java
+ * @brief File containing the indexed log of Paxos instances used in multi-Paxos mode
+*/
+package demo;
+
+import java.util.Arrays;
+
+/**
+ * @class SlotLog
+ * @brief Per-slot acceptor state (imposeBallot, estimate) and learner state (decided value) of the replicated log
+ *
+ * Slots below base() were decided and compacted into a snapshot, the arrays only hold the slots from base().
+*/
+public class SlotLog {
+	private long[] imposeBallots = new long[16];
+	private int[][] estimates = new int[16][];
+	private int[][] values = new int[16][];
+	private boolean[] decided = new boolean[16];
+
+	private int base = 0; // Slot stored at index 0
+	private int highestAccepted = -1; // Highest slot holding an estimate
+	private int firstUndecided = 0; // Every slot below is decided
+
+	/**
+	 * @brief Grows the arrays so that the slot can be stored
+	 * @param slot The slot index
+	*/
+	private void ensureCapacity(int slot) {
+		if (slot - base < imposeBallots.length) return;
+		int capacity = imposeBallots.length;
+		while (capacity <= slot - base) capacity *= 2;
+		imposeBallots = Arrays.copyOf(imposeBallots, capacity);
+		estimates = Arrays.copyOf(estimates, capacity);
+		values = Arrays.copyOf(values, capacity);
+		decided = Arrays.copyOf(decided, capacity);
+	}
+
+	/**
+	 * @brief Records an estimate imposed in a slot, ignored below base()
+	 * @param slot The slot index
+	 * @param ballot The ballot of the IMPOSE
+	 * @param estimate The imposed batch
+	*/
+	public void accept(int slot, long ballot, int[] estimate) {
+		if (slot < base) return;
+		ensureCapacity(slot);
+		imposeBallots[slot - base] = ballot;
+		estimates[slot - base] = estimate;
+		if (slot > highestAccepted) highestAccepted = slot;
+	}
+
+	/**
+	 * @brief Records the decided value of a slot
+	 * @param slot The slot index
+	 * @param value The decided batch
+	 * @return false if the slot was already decided
+	*/
+	public boolean decide(int slot, int[] value) {
+		if (slot < base) return false;
+		ensureCapacity(slot);
+		if (decided[slot - base]) return false;
+		decided[slot - base] = true;
+		values[slot - base] = value;
+		advance();
+		return true;
+	}
+
+	/**
+	 * @brief Drops every slot below the given one, they are decided and covered by a snapshot
+	 * @param slot The new base
+	*/
+	public void truncate(int slot) {
+		if (slot <= base) return;
+		int shift = Math.min(slot - base, imposeBallots.length);
+		int kept = imposeBallots.length - shift;
+		System.arraycopy(imposeBallots, shift, imposeBallots, 0, kept);
+		System.arraycopy(estimates, shift, estimates, 0, kept);
+		System.arraycopy(values, shift, values, 0, kept);
+		System.arraycopy(decided, shift, decided, 0, kept);
+		Arrays.fill(imposeBallots, kept, imposeBallots.length, 0);
+		Arrays.fill(estimates, kept, estimates.length, null);
+		Arrays.fill(values, kept, values.length, null);
+		Arrays.fill(decided, kept, decided.length, false);
+		base = slot;
+		if (firstUndecided < base) firstUndecided = base;
+		advance();
+	}
+
+	private void advance() {
+		while (firstUndecided - base < decided.length && decided[firstUndecided - base]) firstUndecided++;
+	}
+
+	/**
+	 * @return The ballot of the estimate in the slot, 0 if nothing was imposed
+	*/
+	public long imposeBallot(int slot) {
+		return slot >= base && slot - base < imposeBallots.length ? imposeBallots[slot - base] : 0;
+	}
+
+	public int[] estimate(int slot) {
+		return slot >= base && slot - base < estimates.length ? estimates[slot - base] : null;
+	}
+
+	/**
+	 * @return true if the slot is decided or compacted
+	*/
+	public boolean isDecided(int slot) {
+		return slot < base || (slot - base < decided.length && decided[slot - base]);
+	}
+
+	public int[] value(int slot) {
+		return values[slot - base];
+	}
+
+	public int base() {
+		return base;
+	}
+
+	public int highestAccepted() {
+		return highestAccepted;
+	}
+
+	public int firstUndecided() {
+		return firstUndecided;
+	}
+
+	/**
+	 * @brief Copies the impose ballots of every slot from the given one up to the highest accepted slot
+	 * @param from The first slot to copy, at least base()
+	 * @return
+	*/
+	public long[] imposeBallotsFrom(int from) {
+		if (from > highestAccepted) return new long[0];
+		return Arrays.copyOfRange(imposeBallots, from - base, highestAccepted + 1 - base);
+	}
+
+	/**
+	 * @brief Copies the estimates of every slot from the given one up to the highest accepted slot
+	 * @param from The first slot to copy, at least base()
+	 * @return
+	*/
+	public int[][] estimatesFrom(int from) {
+		if (from > highestAccepted) return new int[0][];
+		return Arrays.copyOfRange(estimates, from - base, highestAccepted + 1 - base);
+	}
+
+	/**
+	 * @brief Copies the decided batches of every slot from the given one up to the first undecided slot
+	 * @param from The first slot to copy, at least base()
+	 * @return
+	*/
+	public int[][] decidedFrom(int from) {
+		if (from >= firstUndecided) return new int[0][];
+		return Arrays.copyOfRange(values, from - base, firstUndecided - base);
+	}
+
+	/**
+	 * @brief Forgets every slot
+	*/
+	public void clear() {
+		Arrays.fill(imposeBallots, 0);
+		Arrays.fill(estimates, null);
+		Arrays.fill(values, null);
+		Arrays.fill(decided, false);
+		base = 0;
+		highestAccepted = -1;
+		firstUndecided = 0;
+	}
+}
@@ -0,0 +1,35 @@
+/**
+ * @file SlotStore.java
+ * @brief File containing the interface of the durable acceptor state of multi-Paxos
+*/
+package demo;
+
+import java.io.IOException;
+
+/**
+ * @interface SlotStore
+ * @brief Acceptor store that also holds the estimate of every slot, the only kind multi-Paxos can use
+*/
+public interface SlotStore extends AcceptorStore {
+	/**
+	 * @brief Records the estimate of a slot
+	 * @param slot The slot index
+	 * @param ballot The ballot of the IMPOSE
+	 * @param batch The imposed batch
+	*/
+	void saveImpose(int slot, long ballot, int[] batch) throws IOException;
+
+	/**
+	 * @brief Reads back the persisted state
+	 * @param slots Receives the estimates of every slot
+	 * @return {readBallot, imposeBallot, estimate} of the register
+	*/
+	long[] load(SlotLog slots) throws IOException;
+
+	/**
+	 * @brief Drops the records of the slots below slots.base(), which a snapshot now covers
+	 * @param readBallot The current readBallot
+	 * @param slots The slots still held
+	*/
+	void compact(long readBallot, SlotLog slots) throws IOException;
+}
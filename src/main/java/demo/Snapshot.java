@@ -0,0 +1,70 @@
+/**
+ * @file Snapshot.java
+ * @brief File containing the snapshot of the applied state of the replicated log
+*/
+package demo;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @class Snapshot
+ * @brief Applied state after every slot below `slot`: the set of applied commands and the digest of the command sequence
+*/
+public class Snapshot {
+	public final int slot; // First slot not covered by the snapshot
+	public final long[] applied; // BitSet words of the applied commands
+	public final int appliedCount;
+	public final long digest;
+
+	public Snapshot(int slot, long[] applied, int appliedCount, long digest) {
+		this.slot = slot;
+		this.applied = applied;
+		this.appliedCount = appliedCount;
+		this.digest = digest;
+	}
+
+	/**
+	 * @brief Writes the snapshot next to the file and renames it, so a crash leaves either the old or the new snapshot
+	 * @param path The file of the snapshot
+	*/
+	public void write(Path path) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (OutputStream file = Files.newOutputStream(temporary); DataOutputStream out = new DataOutputStream(file)) {
+			out.writeInt(slot);
+			out.writeInt(appliedCount);
+			out.writeLong(digest);
+			out.writeInt(applied.length);
+			for (long word : applied) out.writeLong(word);
+		}
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @brief Reads a snapshot
+	 * @param path The file of the snapshot
+	 * @return null if there is no snapshot
+	*/
+	public static Snapshot read(Path path) throws IOException {
+		if (!Files.exists(path)) return null;
+		try (InputStream file = Files.newInputStream(path); DataInputStream in = new DataInputStream(file)) {
+			int slot = in.readInt();
+			int appliedCount = in.readInt();
+			long digest = in.readLong();
+			long[] applied = new long[in.readInt()];
+			for (int i = 0; i < applied.length; i++) applied[i] = in.readLong();
+			return new Snapshot(slot, applied, appliedCount, digest);
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/**
+ * @file Sweep.java
+ * @brief File containing the parameter sweep of single-decree runs in one JVM, replacing one mvn exec per configuration
+*/
+package demo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.event.Logging;
+
+import demo.Main.*;
+
+/**
+ * @class Sweep
+ * @brief Runs every point of a grid of parameters REPETITIONS times, each run on a fresh actor system, and writes one table
+ *
+ * A run ends at the first ACK quorum, or after DEADLINE ms without one.
+ * PARALLELISM workers run the runs concurrently, each actor system getting its own dispatcher of cores / PARALLELISM threads.
+*/
+public class Sweep {
+
+	/**
+	 * @class Point
+	 * @brief The values of the axes at one point of the grid
+	*/
+	static final class Point {
+		final Map<String, String> values = new LinkedHashMap<>();
+		String row; // Values of the axes and CRASH_NUMBER, tab-separated
+	}
+
+	/**
+	 * @param args KEY=v1,v2,... axes of the grid, the first one varying slowest, over the parameters of param.txt
+	 * (run.bat's grid by default, CRASH_NUMBER = (N + 1) / 2 - 1 unless it is an axis),
+	 * and REPETITIONS (1), DEADLINE (10000ms), OUTPUT (summary/sweep.txt), PARALLELISM (half the cores)
+	 * and COMPARE=1 to run the sweep sequentially first, after a warm-up run of every point, and compare both
+	*/
+	public static void main(String[] args) throws Exception {
+		Map<String, String[]> grid = new LinkedHashMap<>();
+		int repetitions = 1;
+		int deadline = 10000;
+		int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		boolean compare = false;
+		String output = "summary/sweep.txt";
+		for (String arg : args) {
+			String[] parts = arg.split("=", 2);
+			switch (parts[0]) {
+				case "REPETITIONS": repetitions = Integer.parseInt(parts[1]); break;
+				case "DEADLINE": deadline = Integer.parseInt(parts[1]); break;
+				case "OUTPUT": output = parts[1]; break;
+				case "PARALLELISM": parallelism = Integer.parseInt(parts[1]); break;
+				case "COMPARE": compare = Integer.parseInt(parts[1]) != 0; break;
+				default: grid.put(parts[0], parts[1].split(","));
+			}
+		}
+		if (grid.isEmpty()) {
+			grid.put("CRASH_PROBABILITY", new String[] {"0", "0.1", "0.5", "1"});
+			grid.put("N", new String[] {"3", "10", "50", "100"});
+			grid.put("LEADER_ELECTION_TIMEOUT", new String[] {"10", "50", "100", "500", "1000"});
+		}
+		boolean deriveCrashNumber = !grid.containsKey("CRASH_NUMBER");
+		List<String> axes = new ArrayList<>(grid.keySet());
+
+		Main.readParameters("param.txt");
+		if (Main.NUMBER_OF_COMMANDS > 0) {
+			System.err.println("The sweep runs single-decree Paxos, set NUMBER_OF_COMMANDS = 0");
+			return;
+		}
+		// Every actor system names its processes Actor1..N, so concurrent runs would share the store files in /wal
+		for (String durability : grid.getOrDefault("DURABILITY", new String[] {Main.DURABILITY})) {
+			if (parallelism > 1 && !durability.equals("none")) {
+				System.err.println("Concurrent runs would share the store files of their processes, set DURABILITY = none or PARALLELISM=1");
+				return;
+			}
+		}
+
+		int size = 1;
+		for (String[] values : grid.values()) size *= values.length;
+		List<Point> points = new ArrayList<>(size);
+		for (int k = 0; k < size; k++) {
+			// k is the point in mixed radix, the last axis varying fastest
+			String[] values = new String[axes.size()];
+			for (int a = axes.size() - 1, rest = k; a >= 0; a--) {
+				String[] axis = grid.get(axes.get(a));
+				values[a] = axis[rest % axis.length];
+				rest /= axis.length;
+			}
+			Point point = new Point();
+			StringBuilder row = new StringBuilder();
+			for (int a = 0; a < axes.size(); a++) {
+				point.values.put(axes.get(a), values[a]);
+				row.append(a > 0 ? "\t" : "").append(values[a]);
+			}
+			if (deriveCrashNumber) {
+				int crashNumber = (Integer.parseInt(point.values.getOrDefault("N", String.valueOf(Main.N))) + 1) / 2 - 1;
+				point.values.put("CRASH_NUMBER", String.valueOf(crashNumber));
+				row.append("\t").append(crashNumber);
+			}
+			point.row = row.toString();
+			points.add(point);
+		}
+		String header = String.join("\t", axes) + (deriveCrashNumber ? "\tCRASH_NUMBER" : "") + "\truns\tmean (ms)\tstdev (ms)\tmin (ms)\tmax (ms)\ttimeouts";
+
+		double[][] sequential = null;
+		long sequentialTime = 0;
+		if (compare) {
+			// Every point once, so that neither mode pays for the JIT compilation
+			sweep(points, 1, deadline, parallelism);
+			long start = System.nanoTime();
+			sequential = sweep(points, repetitions, deadline, 1);
+			sequentialTime = System.nanoTime() - start;
+			write(output.replace(".txt", "_sequential.txt"), header, points, sequential);
+			System.out.println("/!\\ sequential sweep of [" + size + "] configurations x [" + repetitions + "] runs in [" + sequentialTime / 1000000 + "ms]");
+		}
+		long start = System.nanoTime();
+		double[][] times = sweep(points, repetitions, deadline, parallelism);
+		long time = System.nanoTime() - start;
+		write(output, header, points, times);
+		System.out.println("/!\\ swept [" + size + "] configurations x [" + repetitions + "] runs with [" + parallelism + "] workers in [" + time / 1000000 + "ms], written to " + output);
+		if (compare) {
+			System.out.println(String.format("/!\\ speedup [%.2f], mean stdev of a configuration: sequential [%.3fms] parallel [%.3fms], median change of the mean of a configuration [%.1f%%]",
+				(double) sequentialTime / time, meanStdev(sequential), meanStdev(times), medianChange(sequential, times)));
+		}
+	}
+
+	/**
+	 * @brief Runs every repetition of every point on a pool of workers
+	 * @return The times to the first decision in ms, per point and repetition, NaN for a run without decision
+	*/
+	static double[][] sweep(List<Point> points, int repetitions, int deadline, int parallelism) throws InterruptedException, ExecutionException {
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / parallelism);
+		ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+		List<List<Future<Long>>> futures = new ArrayList<>();
+		for (Point point : points) {
+			List<Future<Long>> runs = new ArrayList<>();
+			for (int r = 0; r < repetitions; r++) runs.add(workers.submit(() -> run(point, deadline, threads)));
+			futures.add(runs);
+		}
+		double[][] times = new double[points.size()][repetitions];
+		for (int k = 0; k < points.size(); k++) {
+			for (int r = 0; r < repetitions; r++) {
+				long time = futures.get(k).get(r).get();
+				times[k][r] = time < 0 ? Double.NaN : time / 1e6;
+			}
+			System.out.println(points.get(k).row + "\t" + statistics(times[k]));
+		}
+		workers.shutdown();
+		return times;
+	}
+
+	/**
+	 * @brief Writes one row per point
+	*/
+	static void write(String output, String header, List<Point> points, double[][] times) throws IOException {
+		try (PrintWriter out = new PrintWriter(output)) {
+			out.println(header);
+			for (int k = 0; k < points.size(); k++) out.println(points.get(k).row + "\t" + times[k].length + "\t" + statistics(times[k]));
+		}
+	}
+
+	/**
+	 * @brief Runs the scenario of Main with the parameters of a point on a fresh actor system
+	 * @param deadline The time to wait for the first ACK quorum, in ms
+	 * @param threads The maximum number of threads of the dispatcher
+	 * @return The time from the launch to the first ACK quorum in ns, -1 if there was none before the deadline
+	*/
+	static long run(Point point, int deadline, int threads) throws InterruptedException {
+		ActorSystem system = ActorSystem.create(Cluster.SYSTEM, ConfigFactory.parseString("akka.actor.default-dispatcher.fork-join-executor.parallelism-max = " + threads).withFallback(ConfigFactory.load()));
+		system.getEventStream().setLogLevel(Logging.ErrorLevel());
+		// The parameters are static fields of Main, read under a lock by the ActorinfoMessage constructor
+		ActorinfoMessage actorinfoMessage;
+		int crashNumber, numberOfCommands;
+		synchronized (Main.class) {
+			for (Map.Entry<String, String> e : point.values.entrySet()) Main.setParameter(e.getKey(), e.getValue());
+			actorinfoMessage = new ActorinfoMessage(new ActorRef[Main.N]);
+			crashNumber = Main.CRASH_NUMBER;
+			numberOfCommands = Main.NUMBER_OF_COMMANDS;
+		}
+		ActorRef[] actors = actorinfoMessage.actors;
+		for (int i = 1; i <= actors.length; i++) {
+			actors[i-1] = system.actorOf(Process.createActor(i), "Actor" + i);
+		}
+		Metrics metrics = new Metrics();
+		actorinfoMessage.metrics = metrics;
+		for (ActorRef actor : actors) {
+			actor.tell(actorinfoMessage, ActorRef.noSender());
+		}
+
+		long launchTime = System.nanoTime();
+		Main.launch(system, actors, crashNumber, numberOfCommands);
+		long time;
+		try {
+			time = metrics.firstDecision().get(deadline, TimeUnit.MILLISECONDS) - launchTime;
+		} catch (TimeoutException | ExecutionException e) {
+			time = -1;
+		}
+		system.terminate();
+		try {
+			system.getWhenTerminated().toCompletableFuture().get();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return time;
+	}
+
+	/**
+	 * @return The mean over the points of the stdev of their runs, in ms
+	*/
+	static double meanStdev(double[][] times) {
+		double sum = 0;
+		int n = 0;
+		for (double[] runs : times) {
+			double[] s = moments(runs);
+			if (s != null) {
+				sum += s[1];
+				n++;
+			}
+		}
+		return n == 0 ? 0 : sum / n;
+	}
+
+	/**
+	 * @return The median over the points of |mean of b - mean of a| / mean of a, in %
+	*/
+	static double medianChange(double[][] a, double[][] b) {
+		List<Double> changes = new ArrayList<>();
+		for (int k = 0; k < a.length; k++) {
+			double[] sa = moments(a[k]), sb = moments(b[k]);
+			if (sa != null && sb != null && sa[0] > 0) changes.add(Math.abs(sb[0] - sa[0]) / sa[0]);
+		}
+		if (changes.isEmpty()) return 0;
+		Collections.sort(changes);
+		return 100 * changes.get(changes.size() / 2);
+	}
+
+	/**
+	 * @return mean, stdev, min and max of the times that are not NaN, null if there are none
+	*/
+	static double[] moments(double[] times) {
+		double sum = 0, min = Double.MAX_VALUE, max = 0;
+		int n = 0;
+		for (double t : times) {
+			if (Double.isNaN(t)) continue;
+			sum += t;
+			min = Math.min(min, t);
+			max = Math.max(max, t);
+			n++;
+		}
+		if (n == 0) return null;
+		double mean = sum / n, squares = 0;
+		for (double t : times) {
+			if (!Double.isNaN(t)) squares += (t - mean) * (t - mean);
+		}
+		return new double[] {mean, n > 1 ? Math.sqrt(squares / (n - 1)) : 0, min, max};
+	}
+
+	/**
+	 * @return mean, stdev, min and max in ms and the number of runs without decision, tab-separated
+	*/
+	static String statistics(double[] times) {
+		double[] s = moments(times);
+		int timeouts = 0;
+		for (double t : times) if (Double.isNaN(t)) timeouts++;
+		if (s == null) return "-\t-\t-\t-\t" + timeouts;
+		return String.format("%.3f\t%.3f\t%.3f\t%.3f\t%d", s[0], s[1], s[2], s[3], timeouts);
+	}
+}
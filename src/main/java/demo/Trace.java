@@ -0,0 +1,178 @@
+/**
+ * @file Trace.java
+ * @brief File containing the binary trace of the protocol events
+*/
+package demo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import akka.actor.ActorRef;
+
+/**
+ * @class Trace
+ * @brief Trace file of a JVM, filled by a background thread from the ring buffer of every process
+ *
+ * The file starts with MAGIC, then holds records of RECORD bytes: [timestamp ns][process][type][ballot long][peer][value].
+ * In multi-Paxos records, value holds the slot.
+*/
+public class Trace implements Runnable {
+	static final int MAGIC = 0x50585432; // "PXT2", ballots widened to longs
+	static final int RECORD = 32;
+	static final int FLUSH_INTERVAL = 10; // ms
+	static final int CAPACITY = 1 << 14; // Records per process, a power of 2
+
+	// Record types
+	static final int LAUNCH = 1; // value: proposed value
+	static final int PROPOSE = 2; // ballot, value: proposed value or first slot
+	static final int READ = 3; // ballot, peer
+	static final int GATHER = 4; // ballot, peer, value: estimate
+	static final int IMPOSE = 5; // ballot, peer, value: proposal
+	static final int ACK = 6; // ballot, peer
+	static final int ABORT = 7; // ballot, peer
+	static final int DECIDE = 8; // peer, value: decided value
+	static final int DECIDED = 9; // ballot, value: decided value, the process gathered the ACK quorum
+	static final int CRASHED = 10;
+	static final int SLOT_DECIDE = 11; // peer, value: slot
+
+	private final FileChannel channel;
+	private final ByteBuffer output = ByteBuffer.allocateDirect(RECORD * 4096);
+	private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	/**
+	 * @class Buffer
+	 * @brief Ring buffer of a process, written by the process and drained by the trace thread
+	 *
+	 * A record is four longs, written before head is published, a full buffer drops the new records.
+	*/
+	public static final class Buffer {
+		private final int process;
+		private final long[] records = new long[CAPACITY * 4];
+		private final AtomicLong head = new AtomicLong(); // Next record to write
+		private volatile long tail = 0; // Next record to drain
+		private long dropped = 0;
+
+		private Buffer(int process) {
+			this.process = process;
+		}
+
+		/**
+		 * @brief Appends a record
+		 * @param type The record type
+		 * @param ballot The ballot of the message
+		 * @param peer The id of the other process, 0 if none
+		 * @param value The value or the slot
+		*/
+		public void record(int type, long ballot, int peer, int value) {
+			long h = head.get();
+			if (h - tail >= CAPACITY) {
+				dropped++;
+				return;
+			}
+			int i = (int) (h & (CAPACITY - 1)) * 4;
+			records[i] = System.nanoTime();
+			records[i + 1] = type;
+			records[i + 2] = ballot;
+			records[i + 3] = (long) peer << 32 | (value & 0xFFFFFFFFL);
+			head.lazySet(h + 1);
+		}
+
+		public long getDropped() {
+			return dropped;
+		}
+	}
+
+	/**
+	 * @brief Creates the trace file and starts the trace thread
+	 * @param path The trace file
+	*/
+	public Trace(Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		output.putInt(MAGIC);
+		thread = new Thread(this, "trace");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @return A new ring buffer for the process
+	*/
+	public Buffer buffer(int process) {
+		Buffer buffer = new Buffer(process);
+		buffers.add(buffer);
+		return buffer;
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				drain();
+				Thread.sleep(FLUSH_INTERVAL);
+			}
+		} catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @brief Copies the published records of every buffer to the file
+	*/
+	private synchronized void drain() throws IOException {
+		for (Buffer buffer : buffers) {
+			long head = buffer.head.get();
+			for (long r = buffer.tail; r < head; r++) {
+				if (output.remaining() < RECORD) write();
+				int i = (int) (r & (CAPACITY - 1)) * 4;
+				long peerValue = buffer.records[i + 3];
+				output.putLong(buffer.records[i]).putInt(buffer.process).putInt((int) buffer.records[i + 1]).putLong(buffer.records[i + 2]).putInt((int) (peerValue >>> 32)).putInt((int) peerValue);
+			}
+			buffer.tail = head;
+		}
+		write();
+	}
+
+	private void write() throws IOException {
+		output.flip();
+		while (output.hasRemaining()) channel.write(output);
+		output.clear();
+	}
+
+	/**
+	 * @brief Stops the trace thread and writes the remaining records
+	 * @return The number of records dropped because a buffer was full
+	*/
+	public long close() throws IOException, InterruptedException {
+		running = false;
+		thread.join();
+		drain();
+		channel.close();
+		long dropped = 0;
+		for (Buffer buffer : buffers) dropped += buffer.getDropped();
+		return dropped;
+	}
+
+	/**
+	 * @return The id of a process from the digits ending the name of its actor or proxy, 0 for any other sender
+	*/
+	public static int idOf(ActorRef sender) {
+		if (sender == null) return 0;
+		String name = sender.path().name();
+		int id = 0, scale = 1;
+		for (int i = name.length() - 1; i >= 0 && Character.isDigit(name.charAt(i)); i--) {
+			id += (name.charAt(i) - '0') * scale;
+			scale *= 10;
+		}
+		return id;
+	}
+}
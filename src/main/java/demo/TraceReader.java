@@ -0,0 +1,130 @@
+/**
+ * @file TraceReader.java
+ * @brief File containing the analysis of the binary traces, replacing process.py
+*/
+package demo;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @class TraceReader
+ * @brief Reads trace files and writes the summary of the run in the format of process.py
+*/
+public class TraceReader {
+
+	/**
+	 * @class Record
+	 * @brief One decoded trace record
+	*/
+	public static class Record {
+		public final long timestamp;
+		public final int process, type, peer, value;
+		public final long ballot;
+
+		Record(long timestamp, int process, int type, long ballot, int peer, int value) {
+			this.timestamp = timestamp;
+			this.process = process;
+			this.type = type;
+			this.ballot = ballot;
+			this.peer = peer;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * @brief Reads every record of a trace file, ordered by timestamp
+	 * @param path The trace file
+	*/
+	public static List<Record> read(Path path) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+		if (in.remaining() < 4 || in.getInt() != Trace.MAGIC) throw new IOException(path + " is not a trace file");
+		List<Record> records = new ArrayList<>(in.remaining() / Trace.RECORD);
+		while (in.remaining() >= Trace.RECORD) {
+			records.add(new Record(in.getLong(), in.getInt(), in.getInt(), in.getLong(), in.getInt(), in.getInt()));
+		}
+		records.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+		return records;
+	}
+
+	/**
+	 * @param args The trace files, traces/trace.bin by default
+	*/
+	public static void main(String[] args) throws IOException {
+		List<Record> records = new ArrayList<>();
+		for (String file : args.length > 0 ? Arrays.asList(args) : Arrays.asList("traces/trace.bin")) {
+			records.addAll(read(Paths.get(file)));
+		}
+		// Timestamps of different JVMs are not comparable, records are only ordered within a file
+		Map<String, String> parameters = new TreeMap<>();
+		List<String> paramLines = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new FileReader("param.txt"))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				paramLines.add(line);
+				String[] parts = line.split("=");
+				if (parts.length == 2) parameters.put(parts[0].trim(), parts[1].trim());
+			}
+		}
+
+		// Time of the first process gathering an ACK quorum, from its LAUNCH
+		Map<Integer, Long> launches = new TreeMap<>();
+		Map<Integer, String> nodes = new TreeMap<>();
+		long[] counts = new long[Trace.SLOT_DECIDE + 1];
+		int decidedValue = -1;
+		long firstTime = 0;
+		boolean consistent = true;
+		for (Record r : records) {
+			if (r.type < counts.length) counts[r.type]++;
+			switch (r.type) {
+				case Trace.LAUNCH:
+					launches.putIfAbsent(r.process, r.timestamp);
+					break;
+				case Trace.DECIDE:
+				case Trace.DECIDED: {
+					if (decidedValue == -1) decidedValue = r.value;
+					String time = "";
+					if (r.type == Trace.DECIDED && launches.containsKey(r.process)) {
+						long elapsed = (r.timestamp - launches.get(r.process)) / 1000000;
+						if (firstTime == 0) firstTime = elapsed;
+						time = "\tTIME[" + elapsed + "ms]";
+					}
+					if (r.value != decidedValue) {
+						consistent = false;
+						nodes.put(r.process, "NODE\t[" + r.process + "]\tVALUE\t[" + r.value + "]" + time + "\t<---------- uncheck");
+					}
+					else if (!nodes.containsKey(r.process)) {
+						nodes.put(r.process, "NODE\t[" + r.process + "]\tVALUE\t[" + r.value + "]" + time);
+					}
+					break;
+				}
+			}
+		}
+
+		String summary = "summary/N=" + parameters.get("N") + "_f=" + parameters.get("CRASH_NUMBER") + "_a=" + parameters.get("CRASH_PROBABILITY") + "_tle=" + parameters.get("LEADER_ELECTION_TIMEOUT") + ".txt";
+		try (PrintWriter out = new PrintWriter(summary)) {
+			if (!consistent) out.println("**************[CONCURRENCY ERREOR]*************");
+			out.println("Time for first process to decide: " + firstTime + "ms");
+			out.println("**************[PARAM INFO]************");
+			for (String line : paramLines) out.println(line);
+			out.println("**************[NODE INFO]*************");
+			for (String line : nodes.values()) out.println(line);
+		}
+
+		String[] names = {"", "LAUNCH", "PROPOSE", "READ", "GATHER", "IMPOSE", "ACK", "ABORT", "DECIDE", "DECIDED", "CRASHED", "SLOT DECIDE"};
+		StringBuilder line = new StringBuilder("records [" + records.size() + "]");
+		for (int type = 1; type < counts.length; type++) line.append(" ").append(names[type]).append(" [").append(counts[type]).append("]");
+		System.out.println(line);
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * @file WriteAheadLog.java
+ * @brief File containing the append-only log persisting the acceptor state
+*/
+package demo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @class WriteAheadLog
+ * @brief Append-only file of acceptor updates, each record is [type][slot][ballot long][length][values...]
+*/
+public class WriteAheadLog implements SlotStore {
+	static final byte READ = 1; // readBallot changed
+	static final byte IMPOSE = 2; // imposeBallot and estimate of a slot changed
+
+	private final Path path;
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+	private long syncs = 0;
+
+	/**
+	 * @brief Opens the log
+	 * @param path The file of the log
+	 * @param recover Keeps the records of a previous run if true, discards them otherwise
+	*/
+	public WriteAheadLog(Path path, boolean recover) throws IOException {
+		this.path = path;
+		Files.createDirectories(path.getParent());
+		if (recover) {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+		else {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+	}
+
+	@Override
+	public void saveRead(long ballot) throws IOException {
+		reserve(17);
+		buffer.put(READ).putInt(0).putLong(ballot).putInt(0);
+	}
+
+	@Override
+	public void saveImpose(long ballot, int estimate) throws IOException {
+		reserve(21);
+		buffer.put(IMPOSE).putInt(0).putLong(ballot).putInt(1).putInt(estimate);
+	}
+
+	@Override
+	public void saveImpose(int slot, long ballot, int[] batch) throws IOException {
+		reserve(17 + 4 * batch.length);
+		buffer.put(IMPOSE).putInt(slot).putLong(ballot).putInt(batch.length);
+		for (int command : batch) buffer.putInt(command);
+	}
+
+	/**
+	 * @brief Writes the buffered records and forces them to the disk
+	*/
+	@Override
+	public void sync() throws IOException {
+		write();
+		channel.force(false);
+		syncs++;
+	}
+
+	/**
+	 * @brief Rewrites the log with one READ record and the IMPOSE records of the slots still held, then replaces the old file
+	*/
+	@Override
+	public void compact(long readBallot, SlotLog slots) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		// The buffered records are superseded by the state being rewritten
+		buffer.clear();
+		FileChannel old = channel;
+		channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		saveRead(readBallot);
+		for (int slot = slots.base(); slot <= slots.highestAccepted(); slot++) {
+			if (slots.imposeBallot(slot) > 0) saveImpose(slot, slots.imposeBallot(slot), slots.estimate(slot));
+		}
+		sync();
+		channel.close();
+		old.close();
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	@Override
+	public long[] load() throws IOException {
+		return load(null);
+	}
+
+	/**
+	 * @brief Replays every record of the log, a truncated last record is ignored
+	 * @param slots Receives the estimates of every slot, null in single-decree mode
+	*/
+	@Override
+	public long[] load(SlotLog slots) throws IOException {
+		write();
+		long[] register = new long[3];
+		ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+		try {
+			while (records.hasRemaining()) {
+				byte type = records.get();
+				int slot = records.getInt();
+				long ballot = records.getLong();
+				int[] batch = new int[records.getInt()];
+				for (int i = 0; i < batch.length; i++) batch[i] = records.getInt();
+				if (type == READ) {
+					register[0] = Math.max(register[0], ballot);
+				}
+				else {
+					register[1] = Math.max(register[1], ballot);
+					if (slots == null) register[2] = batch[0];
+					else slots.accept(slot, ballot, batch);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			// The process crashed while writing the last record, it was never acknowledged
+		}
+		return register;
+	}
+
+	@Override
+	public long getSyncs() {
+		return syncs;
+	}
+
+	@Override
+	public void close() throws IOException {
+		write();
+		channel.close();
+	}
+
+	/**
+	 * @brief Makes room in the buffer for a record
+	 * @param bytes The size of the record
+	*/
+	private void reserve(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) return;
+		write();
+		if (buffer.capacity() < bytes) buffer = ByteBuffer.allocateDirect(bytes);
+	}
+
+	private void write() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+}
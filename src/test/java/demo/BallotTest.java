@@ -0,0 +1,64 @@
+/**
+ * @file BallotTest.java
+ * @brief File containing the tests of the ballot layout and of Ballot.next
+*/
+package demo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @class BallotTest
+ * @brief Ballots order by round then id, and next() is the smallest ballot of the proposer above both of its arguments
+*/
+public class BallotTest {
+
+	@Test
+	public void fieldsAreUnpacked() {
+		long ballot = Ballot.of(123456789L, 42);
+		assertEquals(123456789L, Ballot.round(ballot));
+		assertEquals(42, Ballot.id(ballot));
+		assertEquals(Ballot.MAX_ID, Ballot.id(Ballot.of(1, Ballot.MAX_ID)));
+		assertEquals(1, Ballot.round(Ballot.of(1, Ballot.MAX_ID)));
+	}
+
+	@Test
+	public void ballotsOrderByRoundThenId() {
+		assertTrue(Ballot.of(1, Ballot.MAX_ID) < Ballot.of(2, 1));
+		assertTrue(Ballot.of(2, 1) < Ballot.of(2, 2));
+		assertTrue(0 < Ballot.of(0, 1));
+	}
+
+	@Test
+	public void nextGoesPastTheHighestBallot() {
+		assertEquals(Ballot.of(1, 3), Ballot.next(Ballot.of(0, 3), 0));
+		assertEquals(Ballot.of(3, 3), Ballot.next(Ballot.of(2, 3), 0));
+		// Same round as the highest ballot when the id of the proposer is above it
+		assertEquals(Ballot.of(5, 3), Ballot.next(Ballot.of(2, 3), Ballot.of(5, 1)));
+		assertEquals(Ballot.of(6, 3), Ballot.next(Ballot.of(2, 3), Ballot.of(5, 7)));
+		assertEquals(Ballot.of(6, 3), Ballot.next(Ballot.of(2, 3), Ballot.of(5, 3)));
+		// A lower highest ballot changes nothing
+		assertEquals(Ballot.of(6, 3), Ballot.next(Ballot.of(5, 3), Ballot.of(2, 9)));
+	}
+
+	@Test
+	public void nextIsTheSmallestOwnBallotAboveBoth() {
+		for (int id = 1; id <= 4; id++) {
+			for (long round = 0; round <= 4; round++) {
+				long ballot = Ballot.of(round, id);
+				for (long highestRound = 0; highestRound <= 6; highestRound++) {
+					for (int highestId = 0; highestId <= 5; highestId++) {
+						long highest = highestRound == 0 && highestId == 0 ? 0 : Ballot.of(highestRound, highestId);
+						long next = Ballot.next(ballot, highest);
+						assertEquals(id, Ballot.id(next));
+						assertTrue(next > ballot && next > highest);
+						long previous = Ballot.of(Ballot.round(next) - 1, id);
+						assertTrue(previous <= ballot || previous <= highest);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * @file PaxosCodecTest.java
+ * @brief File containing the round-trip tests of PaxosCodec
+*/
+package demo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import demo.Main.*;
+
+/**
+ * @class PaxosCodecTest
+ * @brief Every message decodes to the fields it was encoded from, in exactly sizeOf() bytes
+*/
+public class PaxosCodecTest {
+
+	/**
+	 * @brief Encodes the message, checks its size and that decoding reads every byte, and re-encodes the result to the same bytes
+	*/
+	private static <T> T roundTrip(T m) {
+		byte[] bytes = PaxosCodec.encode(m);
+		assertEquals(PaxosCodec.sizeOf(m), bytes.length);
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		@SuppressWarnings("unchecked")
+		T decoded = (T) PaxosCodec.decode(in);
+		assertFalse(in.hasRemaining());
+		assertEquals(m.getClass(), decoded.getClass());
+		assertArrayEquals(bytes, PaxosCodec.encode(decoded));
+		return decoded;
+	}
+
+	@Test
+	public void singleDecreeMessages() {
+		ReadMessage read = roundTrip(new ReadMessage(Ballot.of(3, 37)));
+		assertEquals(Ballot.of(3, 37), read.ballot);
+
+		GatherMessage gather = roundTrip(new GatherMessage(Ballot.of(3, 37), Ballot.of(2, 5), -1));
+		assertEquals(Ballot.of(3, 37), gather.ballot);
+		assertEquals(Ballot.of(2, 5), gather.imposeBallot);
+		assertEquals(-1, gather.estimate);
+		assertNull(gather.imposeBallots);
+		assertNull(gather.estimates);
+
+		ImposeMessage impose = roundTrip(new ImposeMessage(Ballot.of(3, 37), 1));
+		assertEquals(Ballot.of(3, 37), impose.ballot);
+		assertEquals(1, impose.proposal);
+		assertNull(impose.batch);
+
+		assertEquals(Ballot.of(3, 37), roundTrip(new ACKMessage(Ballot.of(3, 37))).ballot);
+		assertEquals(0, roundTrip(new DecideMessage(0)).proposal);
+
+		AbortMessage abort = roundTrip(new AbortMessage(Ballot.of(3, 37), Ballot.of(4, 2)));
+		assertEquals(Ballot.of(3, 37), abort.ballot);
+		assertEquals(Ballot.of(4, 2), abort.highestBallot);
+	}
+
+	@Test
+	public void multiPaxosMessages() {
+		int[] batch = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+		ReadMessage read = roundTrip(new ReadMessage(Ballot.of(7, 1), 4242));
+		assertEquals(4242, read.slot);
+
+		long[] imposeBallots = {0, Ballot.of(6, 2), Ballot.of(Long.MAX_VALUE >>> Ballot.ID_BITS, Ballot.MAX_ID)};
+		int[][] estimates = {null, {}, batch};
+		GatherMessage gather = roundTrip(new GatherMessage(Ballot.of(7, 1), 10, imposeBallots, estimates));
+		assertEquals(10, gather.slot);
+		assertArrayEquals(imposeBallots, gather.imposeBallots);
+		assertNull(gather.estimates[0]);
+		assertArrayEquals(estimates[1], gather.estimates[1]);
+		assertArrayEquals(batch, gather.estimates[2]);
+
+		ImposeMessage impose = roundTrip(new ImposeMessage(Ballot.of(7, 1), 12, batch));
+		assertEquals(12, impose.slot);
+		assertArrayEquals(batch, impose.batch);
+
+		assertEquals(12, roundTrip(new ACKMessage(Ballot.of(7, 1), 12)).slot);
+
+		DecideMessage decide = roundTrip(new DecideMessage(12, batch));
+		assertEquals(12, decide.slot);
+		assertArrayEquals(batch, decide.batch);
+
+		assertEquals(-5, roundTrip(new CommandMessage(-5)).command);
+		assertEquals(3, roundTrip(new CatchupMessage(3)).slot);
+
+		CatchupReplyMessage reply = roundTrip(new CatchupReplyMessage(3, new int[][] {batch, {2}}));
+		assertEquals(3, reply.slot);
+		assertArrayEquals(batch, reply.batches[0]);
+		assertArrayEquals(new int[] {2}, reply.batches[1]);
+
+		long[] applied = {-1L, 0, 1L << 63};
+		SnapshotMessage snapshot = roundTrip(new SnapshotMessage(64, applied, 130, 0x90a4b279218939f4L));
+		assertEquals(64, snapshot.slot);
+		assertArrayEquals(applied, snapshot.applied);
+		assertEquals(130, snapshot.appliedCount);
+		assertEquals(0x90a4b279218939f4L, snapshot.digest);
+	}
+
+	@Test
+	public void driverMessages() {
+		roundTrip(new LaunchMessage());
+		roundTrip(new CrashMessage());
+		DoneMessage done = roundTrip(new DoneMessage(100, true));
+		assertEquals(100, done.id);
+		assertTrue(done.crashed);
+		assertEquals(7, roundTrip(new HeartbeatMessage(7)).id);
+	}
+
+	@Test
+	public void messagesAreDecodedOneAfterTheOther() {
+		Object[] messages = {new ACKMessage(Ballot.of(1, 2), 3), new CommandMessage(4), new DecideMessage(5, new int[] {6, 7})};
+		int size = 0;
+		for (Object m : messages) size += PaxosCodec.sizeOf(m);
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		for (Object m : messages) PaxosCodec.encode(m, buffer);
+		buffer.flip();
+		for (Object m : messages) assertArrayEquals(PaxosCodec.encode(m), PaxosCodec.encode(PaxosCodec.decode(buffer)));
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	public void localMessagesHaveNoEncoding() {
+		assertFalse(PaxosCodec.supports(new TickMessage()));
+		assertFalse(PaxosCodec.supports(new RetryMessage(Ballot.of(1, 1))));
+		assertTrue(PaxosCodec.supports(new HeartbeatMessage(1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownTagIsRejected() {
+		PaxosCodec.decode(new byte[] {13});
+	}
+}
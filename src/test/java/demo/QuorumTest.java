@@ -0,0 +1,88 @@
+/**
+ * @file QuorumTest.java
+ * @brief File containing the tests of the epoch-stamped Quorum
+*/
+package demo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @class QuorumTest
+ * @brief A sender counts once per ballot, and again after start() moves to the next ballot
+*/
+public class QuorumTest {
+
+	@Test
+	public void senderCountsOncePerBallot() {
+		Quorum quorum = new Quorum(5);
+		long ballot = Ballot.of(1, 1);
+		quorum.start(ballot);
+		assertTrue(quorum.add(ballot, 2));
+		assertFalse(quorum.add(ballot, 2));
+		assertTrue(quorum.add(ballot, 3));
+		assertEquals(2, quorum.count());
+	}
+
+	@Test
+	public void repliesToAnotherBallotAreNotCounted() {
+		Quorum quorum = new Quorum(5);
+		quorum.start(Ballot.of(2, 1));
+		assertFalse(quorum.add(Ballot.of(1, 1), 2));
+		assertFalse(quorum.add(Ballot.of(3, 1), 2));
+		assertEquals(0, quorum.count());
+	}
+
+	@Test
+	public void startCountsEverySenderAgain() {
+		Quorum quorum = new Quorum(5);
+		long first = Ballot.of(1, 1), second = Ballot.of(2, 1);
+		quorum.start(first);
+		for (int sender = 1; sender <= 3; sender++) quorum.add(first, sender);
+		quorum.start(second);
+		assertEquals(0, quorum.count());
+		assertFalse(quorum.add(first, 4));
+		for (int sender = 1; sender <= 3; sender++) assertTrue(quorum.add(second, sender));
+		assertEquals(3, quorum.count());
+	}
+
+	@Test
+	public void majorityIsReachedOncePerBallot() {
+		Quorum quorum = new Quorum(5);
+		long ballot = Ballot.of(1, 1);
+		quorum.start(ballot);
+		quorum.add(ballot, 1);
+		quorum.add(ballot, 2);
+		assertFalse(quorum.justReached());
+		assertTrue(quorum.add(ballot, 3));
+		assertTrue(quorum.justReached());
+		assertFalse(quorum.add(ballot, 3));
+		assertTrue(quorum.add(ballot, 4));
+		assertFalse(quorum.justReached());
+	}
+
+	@Test
+	public void nothingIsCountedWhenStopped() {
+		Quorum quorum = new Quorum(3);
+		long ballot = Ballot.of(1, 1);
+		assertFalse(quorum.add(ballot, 1));
+		quorum.start(ballot);
+		quorum.stop();
+		assertFalse(quorum.add(ballot, 1));
+		assertEquals(0, quorum.count());
+	}
+
+	@Test
+	public void sendersOutsideOneToNAreIgnored() {
+		Quorum quorum = new Quorum(3);
+		long ballot = Ballot.of(1, 1);
+		quorum.start(ballot);
+		assertFalse(quorum.add(ballot, 0));
+		assertFalse(quorum.add(ballot, 4));
+		assertTrue(quorum.add(ballot, 3));
+		assertEquals(1, quorum.count());
+	}
+}
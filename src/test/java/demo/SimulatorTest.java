@@ -0,0 +1,68 @@
+/**
+ * @file SimulatorTest.java
+ * @brief File containing the agreement and determinism tests of single-decree Paxos in the simulator
+*/
+package demo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import demo.Simulator.Latency;
+import demo.Simulator.Result;
+
+/**
+ * @class SimulatorTest
+ * @brief Every run, crashes and contention included, decides a single proposed value at every process that did not crash
+*/
+public class SimulatorTest {
+	static final Latency LATENCY = new Latency("exp:20:80");
+	static final long SERVICE_TIME = 5000; // ns
+	static final int BOUND = 2;
+
+	private static Result run(int N, long seed, double alpha, int tle, String failureDetector) {
+		Simulator sim = new Simulator(N, seed, LATENCY, SERVICE_TIME);
+		sim.setAbortTimeout(100);
+		sim.setHeartbeatInterval(10);
+		sim.setFailureDetector(failureDetector, 8);
+		return sim.run((N + 1) / 2 - 1, alpha, tle, BOUND);
+	}
+
+	private static void assertAgreement(String run, int N, Result result) {
+		assertTrue(run + " disagrees", result.consistent);
+		assertTrue(run + " decided nothing", result.firstDecision >= 0);
+		assertTrue(run + " decided " + result.decidedValue, result.decidedValue >= 0 && result.decidedValue < BOUND);
+		assertTrue(run + " left a live process undecided", result.decidedProcesses + result.crashedProcesses >= N);
+	}
+
+	@Test
+	public void everyRunAgreesOnOneValue() {
+		for (long seed = 1; seed <= 3; seed++) {
+			for (double alpha : new double[] {0, 0.5, 1}) {
+				for (int N : new int[] {3, 10, 50}) {
+					for (int tle : new int[] {10, 100}) {
+						assertAgreement("seed " + seed + " alpha " + alpha + " N " + N + " tle " + tle, N, run(N, seed, alpha, tle, "fixed"));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void phiDetectorRunsAgree() {
+		for (long seed = 1; seed <= 3; seed++) {
+			assertAgreement("seed " + seed, 10, run(10, seed, 1, 10, "phi"));
+		}
+	}
+
+	@Test
+	public void sameSeedGivesSameRun() {
+		Result first = run(10, 42, 0.5, 10, "fixed"), second = run(10, 42, 0.5, 10, "fixed");
+		assertEquals(first.firstDecision, second.firstDecision);
+		assertEquals(first.decidedValue, second.decidedValue);
+		assertEquals(first.messages, second.messages);
+		assertEquals(first.ballots, second.ballots);
+		assertEquals(first.endTime, second.endTime);
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * @file WriteAheadLogTest.java
+ * @brief File containing the tests of reloading the write-ahead log, before and after a compaction
+*/
+package demo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @class WriteAheadLogTest
+ * @brief A reopened log restores the readBallot, the highest imposeBallot and the estimate of every slot kept by the last compaction
+*/
+public class WriteAheadLogTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path path;
+
+	@Before
+	public void setup() {
+		path = folder.getRoot().toPath().resolve("wal").resolve("process1.wal");
+	}
+
+	@Test
+	public void singleDecreeRegisterIsReloaded() throws IOException {
+		WriteAheadLog wal = new WriteAheadLog(path, false);
+		wal.saveRead(Ballot.of(1, 2));
+		wal.saveImpose(Ballot.of(1, 2), 7);
+		wal.saveRead(Ballot.of(3, 1));
+		wal.sync();
+		wal.close();
+
+		WriteAheadLog reopened = new WriteAheadLog(path, true);
+		assertArrayEquals(new long[] {Ballot.of(3, 1), Ballot.of(1, 2), 7}, reopened.load());
+		reopened.close();
+	}
+
+	@Test
+	public void slotsKeptByTheCompactionAreReloaded() throws IOException {
+		long first = Ballot.of(1, 1), second = Ballot.of(2, 1), third = Ballot.of(3, 4);
+		SlotLog slots = new SlotLog();
+		WriteAheadLog wal = new WriteAheadLog(path, false);
+		wal.saveRead(first);
+		for (int slot = 0; slot < 10; slot++) {
+			slots.accept(slot, first, new int[] {slot});
+			wal.saveImpose(slot, first, new int[] {slot});
+		}
+		wal.sync();
+		long before = Files.size(path);
+
+		// Slots 0 to 5 are decided and covered by a snapshot
+		for (int slot = 0; slot < 6; slot++) slots.decide(slot, new int[] {slot});
+		slots.truncate(6);
+		wal.compact(second, slots);
+		assertTrue(Files.size(path) < before);
+
+		// The log stays appendable after the compaction
+		slots.accept(10, second, new int[] {10, 11});
+		wal.saveImpose(10, second, new int[] {10, 11});
+		wal.saveRead(third);
+		wal.sync();
+		wal.close();
+
+		SlotLog reloaded = new SlotLog();
+		WriteAheadLog reopened = new WriteAheadLog(path, true);
+		long[] register = reopened.load(reloaded);
+		reopened.close();
+		assertEquals(third, register[0]);
+		assertEquals(second, register[1]);
+		for (int slot = 0; slot < 6; slot++) {
+			assertEquals(0, reloaded.imposeBallot(slot));
+			assertNull(reloaded.estimate(slot));
+		}
+		for (int slot = 6; slot < 10; slot++) {
+			assertEquals(first, reloaded.imposeBallot(slot));
+			assertArrayEquals(new int[] {slot}, reloaded.estimate(slot));
+		}
+		assertEquals(second, reloaded.imposeBallot(10));
+		assertArrayEquals(new int[] {10, 11}, reloaded.estimate(10));
+		assertEquals(10, reloaded.highestAccepted());
+	}
+
+	@Test
+	public void reloadedLogCanBeCompactedAgain() throws IOException {
+		long ballot = Ballot.of(1, 1);
+		SlotLog slots = new SlotLog();
+		WriteAheadLog wal = new WriteAheadLog(path, false);
+		for (int slot = 0; slot < 4; slot++) {
+			slots.accept(slot, ballot, new int[] {slot});
+			wal.saveImpose(slot, ballot, new int[] {slot});
+		}
+		wal.sync();
+		wal.close();
+
+		SlotLog reloaded = new SlotLog();
+		wal = new WriteAheadLog(path, true);
+		wal.load(reloaded);
+		reloaded.decide(0, new int[] {0});
+		reloaded.decide(1, new int[] {1});
+		reloaded.truncate(2);
+		wal.compact(ballot, reloaded);
+		wal.close();
+
+		SlotLog again = new SlotLog();
+		WriteAheadLog reopened = new WriteAheadLog(path, true);
+		assertEquals(ballot, reopened.load(again)[0]);
+		reopened.close();
+		assertEquals(0, again.imposeBallot(1));
+		assertArrayEquals(new int[] {2}, again.estimate(2));
+		assertArrayEquals(new int[] {3}, again.estimate(3));
+	}
+
+	@Test
+	public void truncatedLastRecordIsIgnored() throws IOException {
+		WriteAheadLog wal = new WriteAheadLog(path, false);
+		wal.saveImpose(0, Ballot.of(1, 1), new int[] {5});
+		wal.sync();
+		wal.close();
+		// A crash in the middle of the next record: its type, slot and half of its ballot
+		Files.write(path, new byte[] {WriteAheadLog.IMPOSE, 0, 0, 0, 1, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+
+		SlotLog slots = new SlotLog();
+		WriteAheadLog reopened = new WriteAheadLog(path, true);
+		long[] register = reopened.load(slots);
+		reopened.close();
+		assertEquals(Ballot.of(1, 1), register[1]);
+		assertArrayEquals(new int[] {5}, slots.estimate(0));
+		assertEquals(0, slots.highestAccepted());
+	}
+}
@@ -0,0 +1,73 @@
+import re
+# compare commands/second of the one-shot protocol and of multi-Paxos
+log_file_path = "logs/log.txt"
+param_file_path = "param.txt"
+throughput_output_path = "summary/throughput.txt"
+
+param_content = ""
+with open(param_file_path, 'r') as param_file:
+    param_content = param_file.read()
+pattern = re.compile(r'(\w+)\s*=\s*(\d+\.?\d*)')
+parameters = {}
+for match in pattern.finditer(param_content):
+    param_value = match.group(2)
+    parameters[match.group(1)] = float(param_value) if '.' in param_value else int(param_value)
+commands = parameters.get('NUMBER_OF_COMMANDS', 0)
+depth = parameters.get('PIPELINE_DEPTH', 1)
+batch = parameters.get('BATCH_SIZE', 1)
+match_durability = re.search(r'DURABILITY\s*=\s*(\w+)', param_content)
+durability = match_durability.group(1) if match_durability else "none"
+# number of JVMs listed in the cluster file
+match_cluster = re.search(r'CLUSTER\s*=\s*(\S+)', param_content)
+jvms = 1
+if match_cluster and match_cluster.group(1) != "none":
+    with open(match_cluster.group(1), 'r') as cluster_file:
+        jvms = len([line for line in cluster_file if line.strip() and not line.strip().startswith('#')])
+match_transport = re.search(r'TRANSPORT\s*=\s*(\w+)', param_content)
+transport = match_transport.group(1) if match_transport and jvms > 1 else "local"
+
+# one-shot: time of the first decision, multi-Paxos: time of the first process applying every command
+pattern_single = re.compile(r'\[INFO\].*Total time.*: (\d+)ms')
+pattern_multi = re.compile(r'\[INFO\].*applied \[(\d+)\] commands.*: (\d+)ms')
+# slot latency measured by the leader
+pattern_latency = re.compile(r'\[INFO\].*slot latency.*p50 \[(\d+)\]us p99 \[(\d+)\]us max \[(\d+)\]us')
+# batch sizes imposed by the leader
+pattern_batch = re.compile(r'\[INFO\].*batch size.*mean \[(\d+)\] distribution \[([\d: ]*)\]')
+# previous unbatched runs with the same N and depth, to compute the gain
+pattern_previous = re.compile(r'MODE\t\[multi\]\tN\t\[(\d+)\]\tDEPTH\t\[(\d+)\]\tBATCH\t\[1\].*THROUGHPUT\t\[([\d.]+) commands/s\]')
+
+elapsed = -1
+latency = ""
+batches = ""
+with open(log_file_path, 'r') as log_file:
+    for line in log_file:
+        match_latency = pattern_latency.search(line)
+        if match_latency:
+            latency = f"\tP50\t[{match_latency.group(1)}us]\tP99\t[{match_latency.group(2)}us]\tMAX\t[{match_latency.group(3)}us]"
+        match_batch = pattern_batch.search(line)
+        if match_batch:
+            batches = f"\tMEAN BATCH\t[{match_batch.group(1)}]\tBATCHES\t[{match_batch.group(2)}]"
+        match = pattern_multi.search(line) if commands > 0 else pattern_single.search(line)
+        if match:
+            time = int(match.group(2)) if commands > 0 else int(match.group(1))
+            if elapsed == -1 or time < elapsed:
+                elapsed = time
+
+mode = "multi" if commands > 0 else "single"
+
+unbatched = -1
+try:
+    with open(throughput_output_path, 'r') as previous_file:
+        for line in previous_file:
+            match = pattern_previous.search(line)
+            if match and int(match.group(1)) == parameters['N'] and int(match.group(2)) == depth:
+                unbatched = float(match.group(3))
+except FileNotFoundError:
+    pass
+with open(throughput_output_path, 'a') as output_file:
+    if elapsed <= 0:
+        output_file.write(f"MODE\t[{mode}]\tN\t[{parameters['N']}]\tNO DECISION\n")
+    else:
+        rate = max(commands, 1) * 1000 / elapsed
+        gain = f"\tGAIN\t[x{rate / unbatched:.2f}]" if batch > 1 and unbatched > 0 else ""
+        output_file.write(f"MODE\t[{mode}]\tN\t[{parameters['N']}]\tDEPTH\t[{depth}]\tBATCH\t[{batch}]\tDURABILITY\t[{durability}]\tJVMS\t[{jvms}]\tTRANSPORT\t[{transport}]\tCOMMANDS\t[{max(commands, 1)}]\tTIME\t[{elapsed}ms]\tTHROUGHPUT\t[{rate:.1f} commands/s]{gain}{latency}{batches}\n")